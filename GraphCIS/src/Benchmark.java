@@ -0,0 +1,219 @@
+import org.graphstream.graph.Graph;
+
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Benchmark harness for the counting kernels of GraphCIS. Every kernel is run on every graph family and size, first
+ * for a number of warmup iterations and then for a number of measured iterations of fixed duration. For each
+ * measured iteration the throughput, the number of bytes allocated per operation and the time spent in garbage
+ * collection are recorded. The results are printed and written to a semicolon separated file.
+ *
+ * Usage: {@code java Benchmark [key=value ...]} with the keys
+ * <ul>
+ *     <li>{@code kernels}: comma separated subset of {@code cis, subsets, pathvalues, matrix, eigenvalue}</li>
+ *     <li>{@code families}: comma separated subset of {@code cycle, ladder, spokes, linkedcycle}</li>
+ *     <li>{@code sizes}: comma separated list of graph sizes</li>
+ *     <li>{@code links}: number of link node pairs of the gadgets used by the gadget kernels</li>
+ *     <li>{@code seed}: seed of the random linked cycles</li>
+ *     <li>{@code warmup}, {@code iterations}: number of warmup and measured iterations</li>
+ *     <li>{@code time}: duration of a single iteration in milliseconds</li>
+ *     <li>{@code out}: name of the result file</li>
+ * </ul>
+ */
+public class Benchmark {
+    public static void main(String[] args) {
+        (new Benchmark(args)).run();
+    }
+
+    private final GraphGenerator generator = GraphGenerator.getInstance();
+    private final GraphAnalyzer  analyzer  = GraphAnalyzer.getInstance();
+
+    private String[] kernels    = {"cis", "subsets", "pathvalues", "matrix", "eigenvalue"};
+    private String[] families   = {"cycle", "ladder", "spokes", "linkedcycle"};
+    private int[]    sizes      = {8, 12, 16};
+    private int      links      = 2;
+    private long     seed       = 42;
+    private int      warmup     = 3;
+    private int      iterations = 5;
+    private long     time       = 1000;
+    private String   out        = "benchmark_results.csv";
+
+    // Results of the kernels are accumulated here, such that the JIT compiler can not eliminate them
+    private volatile long sink;
+
+    private Benchmark(String[] args) {
+        for (String arg : args) {
+            String[] keyValue = arg.split("=", 2);
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("Benchmark arguments should be of the form key=value. Got: " + arg);
+            }
+
+            String value = keyValue[1];
+            switch (keyValue[0]) {
+                case "kernels":    kernels    = value.split(",");                  break;
+                case "families":   families   = value.split(",");                  break;
+                case "sizes":      sizes      = parseInts(value.split(","));       break;
+                case "links":      links      = Integer.parseInt(value);           break;
+                case "seed":       seed       = Long.parseLong(value);             break;
+                case "warmup":     warmup     = Integer.parseInt(value);           break;
+                case "iterations": iterations = Integer.parseInt(value);           break;
+                case "time":       time       = Long.parseLong(value);             break;
+                case "out":        out        = value;                             break;
+                default:
+                    throw new IllegalArgumentException("Unknown benchmark argument: " + keyValue[0]);
+            }
+        }
+    }
+
+    private void run() {
+        // The metrics registry is not part of what we want to measure
+        Metrics.getInstance().setEnabled(false);
+
+        List<String> rows = new ArrayList<>();
+        for (String kernel : kernels) {
+            for (String family : families) {
+                for (int n : sizes) {
+                    Runnable operation = createOperation(kernel, family, n);
+                    if (operation == null) {
+                        continue;
+                    }
+
+                    for (int i = 0; i < warmup; i++) {
+                        measure(operation);
+                    }
+
+                    for (int i = 0; i < iterations; i++) {
+                        double[] result = measure(operation);
+                        String row = String.format(Locale.ROOT, "%s;%s;%d;%d;%.3f;%.1f;%.3f",
+                                kernel, family, n, i, result[0], result[1], result[2]);
+                        System.out.println(row);
+                        rows.add(row);
+                    }
+                }
+            }
+        }
+
+        try {
+            PrintWriter writer = new PrintWriter(out, "UTF-8");
+            writer.println("kernel;family;n;iteration;ops_per_second;bytes_per_op;gc_millis");
+            for (String row : rows) {
+                writer.println(row);
+            }
+            writer.close();
+        } catch (FileNotFoundException | UnsupportedEncodingException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Runs {@code operation} repeatedly for the duration of a single iteration.
+     * @param operation operation to benchmark
+     * @return the number of operations per second, the number of bytes allocated per operation and the number of
+     *         milliseconds spent in garbage collection during the iteration
+     */
+    private double[] measure(Runnable operation) {
+        long gcStart    = gcMillis();
+        long allocStart = allocatedBytes();
+        long start      = System.nanoTime();
+        long deadline   = start + time * 1_000_000L;
+
+        long ops = 0;
+        long now;
+        do {
+            operation.run();
+            ops++;
+            now = System.nanoTime();
+        } while (now < deadline);
+
+        long allocated = allocatedBytes() - allocStart;
+
+        return new double[] {ops / ((now - start) / 1e9), allocated / (double) ops, gcMillis() - gcStart};
+    }
+
+    /**
+     * Creates the operation that runs {@code kernel} on a graph of the given family and size. The graph (and gadget)
+     * is constructed once, outside of the measured code.
+     * @param kernel name of the kernel
+     * @param family name of the graph family
+     * @param n      number of vertices
+     * @return the operation, or {@code null} if the kernel can not be run on such a graph
+     */
+    private Runnable createOperation(String kernel, String family, int n) {
+        Graph graph = createGraph(family, n);
+
+        switch (kernel) {
+            case "cis":
+                return () -> sink += analyzer.computeCISSmart(graph);
+            case "subsets":
+                return () -> sink += analyzer.getConnectedSubsets(graph).size();
+            default:
+                break;
+        }
+
+        if (2 * (links + 1) > n) {
+            return null;
+        }
+        Gadget gadget = generator.gadgetizeGraph(graph, links, new Random(seed));
+
+        switch (kernel) {
+            case "pathvalues":
+                return () -> sink += gadget.computePathValues()[0];
+            case "matrix":
+                return () -> sink += gadget.getRecursionMatrix().rows;
+            case "eigenvalue":
+                return () -> sink += (long) gadget.getMaxEigenvalue();
+            default:
+                throw new IllegalArgumentException("Unknown kernel: " + kernel);
+        }
+    }
+
+    private Graph createGraph(String family, int n) {
+        switch (family) {
+            case "cycle":
+                return generator.generateCycle(n);
+            case "ladder":
+                return generator.generateLadder(n);
+            case "spokes":
+                return generator.generateSpokesGraph(n);
+            case "linkedcycle":
+                return generator.generateRandomLinkedCycle(n, 3, new Random(seed));
+            default:
+                throw new IllegalArgumentException("Unknown graph family: " + family);
+        }
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread so far, if the JVM supports measuring this.
+     * @return number of allocated bytes, or 0 if unsupported
+     */
+    private long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        return 0;
+    }
+
+    private long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(bean.getCollectionTime(), 0);
+        }
+
+        return millis;
+    }
+
+    private int[] parseInts(String[] values) {
+        return Arrays.stream(values).mapToInt(Integer::parseInt).toArray();
+    }
+}
@@ -0,0 +1,204 @@
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.SingleGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A graph that is composed of references to other graphs (its components), a number of extra vertices and the edges
+ * that link these together. Nothing is copied when a component is added: the vertices of the i-th component are
+ * relabelled by adding the component's offset to their index, so vertex {@code v} of a component with offset
+ * {@code k} is vertex {@code k + v.getIndex()} of the composite graph. The same graph can therefore be used as a
+ * component any number of times, for example to represent a chain of copies of the same gadget.
+ *
+ * Analyses can traverse the composite graph through its adjacency array. A GraphStream graph is only constructed
+ * when {@code materialize()} is called.
+ */
+public class CompositeGraph {
+    private final List<Graph> components = new ArrayList<>();
+    private int[] offsets   = new int[4];
+    private int[] linkFrom  = new int[4];
+    private int[] linkTo    = new int[4];
+    private int   linkCount = 0;
+    private int   nodeCount = 0;
+    private int[] linkNodes = new int[0];
+
+    /**
+     * Adds a component to this graph. The component is referenced, not copied, so it should not be modified while
+     * it is part of this graph.
+     * @param graph component to add
+     * @return the offset of the component, that is: the index of its vertex with index 0 in this graph
+     */
+    public int addComponent(Graph graph) {
+        if (components.size() == offsets.length) {
+            offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+        }
+
+        int offset = nodeCount;
+        offsets[components.size()] = offset;
+        components.add(graph);
+        nodeCount += graph.getNodeCount();
+
+        return offset;
+    }
+
+    /**
+     * Adds a vertex to this graph that is not part of any component.
+     * @return the index of the new vertex
+     */
+    public int addNode() {
+        return nodeCount++;
+    }
+
+    /**
+     * Adds an edge between two vertices of this graph, which may lie in different components.
+     * @param u index of the first endpoint
+     * @param v index of the second endpoint
+     */
+    public void addLink(int u, int v) {
+        if (u < 0 || u >= nodeCount || v < 0 || v >= nodeCount) {
+            throw new IllegalArgumentException("Cannot link vertices " + u + " and " + v + " in a composite graph " +
+                    "with " + nodeCount + " vertices.");
+        }
+
+        if (linkCount == linkFrom.length) {
+            linkFrom = Arrays.copyOf(linkFrom, 2 * linkFrom.length);
+            linkTo   = Arrays.copyOf(linkTo, 2 * linkTo.length);
+        }
+
+        linkFrom[linkCount] = u;
+        linkTo[linkCount]   = v;
+        linkCount++;
+    }
+
+    /**
+     * Returns the index in this graph of a vertex of one of its components.
+     * @param component number of the component, in the order in which the components were added
+     * @param node      vertex of that component
+     * @return the index of {@code node} in this graph
+     */
+    public int getIndex(int component, Node node) {
+        return offsets[component] + node.getIndex();
+    }
+
+    public int getOffset(int component) {
+        return offsets[component];
+    }
+
+    public int getComponentCount() {
+        return components.size();
+    }
+
+    public Graph getComponent(int component) {
+        return components.get(component);
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getEdgeCount() {
+        int count = linkCount;
+        for (Graph component : components) {
+            count += component.getEdgeCount();
+        }
+
+        return count;
+    }
+
+    public int[] getLinkNodes() {
+        return linkNodes;
+    }
+
+    /**
+     * Marks some vertices of this graph as its link nodes, for example the link nodes of the gadget that this graph
+     * represents.
+     * @param linkNodes indices of the link nodes
+     */
+    public void setLinkNodes(int... linkNodes) {
+        this.linkNodes = linkNodes;
+    }
+
+    /**
+     * Returns the adjacency array of this graph. That is: an array that contains for every vertex the indices of its
+     * neighbors. The adjacency of a graph that is used as a component multiple times is only computed once.
+     * @return the adjacency array of this graph
+     */
+    public int[][] getAdjacencyArray() {
+        int[][] adjacency = new int[nodeCount][];
+        int[]   degree    = new int[nodeCount];
+
+        for (int i = 0; i < linkCount; i++) {
+            degree[linkFrom[i]]++;
+            degree[linkTo[i]]++;
+        }
+
+        // Copy the adjacency of each component, shifted by its offset, leaving room for the links
+        Map<Graph, int[][]> componentAdjacencies = new IdentityHashMap<>();
+        for (int c = 0; c < components.size(); c++) {
+            int[][] componentAdjacency = componentAdjacencies.computeIfAbsent(components.get(c),
+                    graph -> GraphAnalyzer.getInstance().toAdjacencyArray(graph));
+            int offset = offsets[c];
+
+            for (int v = 0; v < componentAdjacency.length; v++) {
+                int[] neighbors = new int[componentAdjacency[v].length + degree[offset + v]];
+                for (int i = 0; i < componentAdjacency[v].length; i++) {
+                    neighbors[i] = offset + componentAdjacency[v][i];
+                }
+                adjacency[offset + v] = neighbors;
+                degree[offset + v] = componentAdjacency[v].length;
+            }
+        }
+
+        // Extra vertices only have links
+        for (int v = 0; v < nodeCount; v++) {
+            if (adjacency[v] == null) {
+                adjacency[v] = new int[degree[v]];
+                degree[v] = 0;
+            }
+        }
+
+        for (int i = 0; i < linkCount; i++) {
+            int u = linkFrom[i];
+            int v = linkTo[i];
+            adjacency[u][degree[u]++] = v;
+            adjacency[v][degree[v]++] = u;
+        }
+
+        return adjacency;
+    }
+
+    /**
+     * Constructs a GraphStream graph that is equal to this graph. Vertex {@code i} of this graph becomes the vertex
+     * with index {@code i} and id {@code String.valueOf(i)}.
+     * @return a GraphStream copy of this graph
+     */
+    public Graph materialize() {
+        Graph graph = new SingleGraph("composite");
+        for (int v = 0; v < nodeCount; v++) {
+            graph.addNode(String.valueOf(v));
+        }
+
+        for (int c = 0; c < components.size(); c++) {
+            int offset = offsets[c];
+            for (Edge e : components.get(c).getEdgeSet()) {
+                addEdge(graph, offset + e.getNode0().getIndex(), offset + e.getNode1().getIndex());
+            }
+        }
+
+        for (int i = 0; i < linkCount; i++) {
+            addEdge(graph, linkFrom[i], linkTo[i]);
+        }
+
+        return graph;
+    }
+
+    private void addEdge(Graph graph, int u, int v) {
+        graph.addEdge(u + "-" + v, u, v);
+    }
+}
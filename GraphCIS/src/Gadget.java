@@ -13,6 +13,7 @@ public class Gadget extends SingleGraph {
     private Node[] linkNodes;
     private int[]  pathValues;
     private int CISp = -1;
+    private long enumerationNodes;
 
     public Gadget(Graph graph, Node[] linkNodes) {
         super(graph.getId(), true, false);
@@ -72,6 +73,10 @@ public class Gadget extends SingleGraph {
     }
 
     public int[] computePathValues() {
+        Metrics metrics = Metrics.getInstance();
+        long start = metrics.startTimer();
+        enumerationNodes = 0;
+
         for (int i = 0; i < pathValues.length; i++) {
             pathValues[i] = 0;
         }
@@ -82,10 +87,15 @@ public class Gadget extends SingleGraph {
 
         computePathValues(yes, no, todo, bitstring);
 
+        metrics.stopTimer("gadget.pathvalues", start);
+        metrics.add("gadget.enumeration.nodes", enumerationNodes);
+        metrics.record("gadget.enumeration.nodes", enumerationNodes);
+
         return pathValues;
     }
 
     private void computePathValues(ArrayList<Node> yes, ArrayList<Node> no, ArrayList<Node> todo, boolean[] bitstring) {
+        enumerationNodes++;
         if (todo.isEmpty()) {
             pathValues[reverseBitStringToInt(bitstring)]++;
             return;
@@ -179,7 +189,10 @@ public class Gadget extends SingleGraph {
 
     private int[] getPathValues() {
         if (pathValues[0] == -1) {
+            Metrics.getInstance().increment("gadget.pathvalues.cache.miss");
             pathValues = computePathValues();
+        } else {
+            Metrics.getInstance().increment("gadget.pathvalues.cache.hit");
         }
 
         return pathValues;
@@ -213,7 +226,10 @@ public class Gadget extends SingleGraph {
 
     public double getMaxEigenvalue() {
         DenseMatrix matrix = getRecursionMatrix();
+
+        long start = Metrics.getInstance().startTimer();
         DenseMatrix.EigenResult eigenResult = matrix.eig();
+        Metrics.getInstance().stopTimer("gadget.eigen", start);
 
         double max = -1;
         for (int i = 0; i < eigenResult.values.real().rows; i++) {
@@ -4,8 +4,6 @@ import org.graphstream.graph.Node;
 import org.graphstream.graph.implementations.SingleGraph;
 import org.graphstream.ui.view.Viewer;
 
-import java.util.Set;
-
 public class Gadget1 extends SingleGraph{
     private Node linkNode;
     private int CISp = -1;
@@ -62,13 +60,6 @@ public class Gadget1 extends SingleGraph{
     }
 
     private void computeCISp() {
-        CISp = 0;
-        Set<Set<Node>> sets = GraphAnalyzer.getInstance().getConnectedSubsets(this);
-
-        for (Set<Node> set : sets) {
-            if (set.contains(linkNode)) {
-                CISp++;
-            }
-        }
+        CISp = GraphAnalyzer.getInstance().countConnectedSubsetsContaining(this, linkNode);
     }
 }
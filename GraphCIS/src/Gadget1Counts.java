@@ -0,0 +1,100 @@
+import java.math.BigInteger;
+
+/**
+ * The rooted counts of a {@code Gadget1}: the number of connected induced subgraphs that contain the link node
+ * (the CISp value) and the number of non-empty connected induced subgraphs that avoid it. These two numbers are all
+ * that is needed to compute the same counts of two gadgets linked by {@code GraphCombiner.linkGadgets1}, so linked
+ * structures can be evaluated level by level without ever constructing their graphs.
+ *
+ * When two gadgets with counts {@code (p1, a1)} and {@code (p2, a2)} are linked through a new hub node, a connected
+ * subset containing the hub consists of the hub and, on either side, either nothing or a connected subset containing
+ * that side's link node. A connected subset avoiding the hub lies entirely within one of the two sides. Hence the
+ * linked gadget has counts {@code ((1 + p1)(1 + p2), p1 + a1 + p2 + a2)}.
+ */
+public class Gadget1Counts {
+    private final BigInteger containing;
+    private final BigInteger avoiding;
+
+    /**
+     * @param containing number of connected induced subgraphs containing the link node
+     * @param avoiding   number of non-empty connected induced subgraphs not containing the link node
+     */
+    public Gadget1Counts(BigInteger containing, BigInteger avoiding) {
+        this.containing = containing;
+        this.avoiding   = avoiding;
+    }
+
+    /**
+     * Computes the rooted counts of a gadget by enumeration.
+     * @param gadget input gadget
+     * @return the rooted counts of {@code gadget}
+     */
+    public static Gadget1Counts of(Gadget1 gadget) {
+        int CISp = gadget.getCISp();
+        // computeCISSmart also counts the empty set
+        int CIS  = GraphAnalyzer.getInstance().computeCISSmart(gadget);
+
+        return new Gadget1Counts(BigInteger.valueOf(CISp), BigInteger.valueOf(CIS - 1 - CISp));
+    }
+
+    /**
+     * Returns the counts of the gadget obtained by linking a gadget with these counts to a gadget with the counts
+     * {@code other}, as done by {@code GraphCombiner.linkGadgets1}.
+     * @param other counts of the second gadget
+     * @return the counts of the linked gadget
+     */
+    public Gadget1Counts link(Gadget1Counts other) {
+        BigInteger newContaining = containing.add(BigInteger.ONE).multiply(other.containing.add(BigInteger.ONE));
+        BigInteger newAvoiding   = containing.add(avoiding).add(other.containing).add(other.avoiding);
+
+        return new Gadget1Counts(newContaining, newAvoiding);
+    }
+
+    /**
+     * Returns the counts of the gadget obtained by linking a gadget with these counts to itself {@code levels} times,
+     * as done by {@code GraphCombiner.makeGadget1Link} with {@code 2^levels} repeats.
+     * Note that the counts roughly square at every level, so the cost is dominated by the multiplication of the final
+     * level, whose operands have about {@code 2^levels} times as many bits as the counts of the original gadget.
+     * @param levels number of times to link the gadget to itself
+     * @return the counts of the linked gadget
+     */
+    public Gadget1Counts repeat(int levels) {
+        if (levels < 0) {
+            throw new IllegalArgumentException("A Gadget1 can not be linked to itself a negative number of times. " +
+                    "Got: " + levels + ".");
+        }
+
+        BigInteger p = containing;
+        BigInteger a = avoiding;
+        for (int i = 0; i < levels; i++) {
+            BigInteger nonEmpty = p.add(a);
+            p = p.add(BigInteger.ONE).pow(2);
+            a = nonEmpty.shiftLeft(1);
+        }
+
+        return new Gadget1Counts(p, a);
+    }
+
+    /**
+     * @return the number of connected induced subgraphs containing the link node
+     */
+    public BigInteger getCISp() {
+        return containing;
+    }
+
+    /**
+     * @return the number of non-empty connected induced subgraphs not containing the link node
+     */
+    public BigInteger getCISAvoidingLinkNode() {
+        return avoiding;
+    }
+
+    /**
+     * Returns the #CIS parameter, counted in the same way as {@code GraphAnalyzer.computeCISSmart}, which includes the
+     * empty set.
+     * @return the #CIS parameter of the gadget
+     */
+    public BigInteger getCIS() {
+        return containing.add(avoiding).add(BigInteger.ONE);
+    }
+}
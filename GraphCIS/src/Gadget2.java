@@ -4,8 +4,6 @@ import org.graphstream.graph.Node;
 import org.graphstream.graph.implementations.SingleGraph;
 import org.graphstream.ui.view.Viewer;
 
-import java.util.Set;
-
 public class Gadget2 extends SingleGraph{
     private Node linkNode1;
     private Node linkNode2;
@@ -69,13 +67,6 @@ public class Gadget2 extends SingleGraph{
     }
 
     private void computeCISp() {
-        CISp = 0;
-        Set<Set<Node>> sets = GraphAnalyzer.getInstance().getConnectedSubsets(this);
-
-        for (Set<Node> set : sets) {
-            if (set.contains(linkNode1) && set.contains(linkNode2)) {
-                CISp++;
-            }
-        }
+        CISp = GraphAnalyzer.getInstance().countConnectedSubsetsContaining(this, linkNode1, linkNode2);
     }
 }
@@ -9,6 +9,11 @@ import java.util.*;
 public class GraphAnalyzer {
     private static GraphAnalyzer instance;
 
+    // States of a vertex while enumerating connected subsets
+    private static final byte TODO = 0;
+    private static final byte YES  = 1;
+    private static final byte NO   = 2;
+
     private GraphAnalyzer() {}
 
     /**
@@ -132,6 +137,38 @@ public class GraphAnalyzer {
         }
     }
 
+    /**
+     * Computes the #CIS parameter of a composite graph without materializing it. As {@code computeCISSmart(Graph)},
+     * the empty set is included in the count.
+     * @param graph input graph
+     * @return the #CIS parameter of {@code graph}
+     */
+    public int computeCISSmart(CompositeGraph graph) {
+        return computeCISSmart(graph.getAdjacencyArray());
+    }
+
+    /**
+     * Computes the #CIS parameter of a graph given by its adjacency array, including the empty set. Every non-empty
+     * connected subset is counted exactly once, from its vertex with the lowest index: after the subsets containing
+     * vertex {@code v} are counted, {@code v} is left out of all further subsets.
+     * @param adjacency adjacency array of the input graph
+     * @return the #CIS parameter of the graph
+     */
+    public int computeCISSmart(int[][] adjacency) {
+        byte[] state = new byte[adjacency.length];
+        int[]  yes   = new int[adjacency.length];
+
+        int sum = 1;
+        for (int v = 0; v < adjacency.length; v++) {
+            state[v] = YES;
+            yes[0] = v;
+            sum += countConnectedSubsetsContaining(adjacency, state, yes, 1, -1);
+            state[v] = NO;
+        }
+
+        return sum;
+    }
+
     /**
      * Prints the #CIS parameter of a graph. Both as integer representation and in the form 2^(c*n)
      * @param graph
@@ -190,6 +227,159 @@ public class GraphAnalyzer {
         return nodes.size() == graph.getNodeCount();
     }
 
+    /**
+     * Returns the number of subsets of the vertices of {@code graph} that contain {@code root} and that induce a
+     * connected subgraph. Contrary to filtering the output of {@code getConnectedSubsets(Graph)}, only sets that
+     * contain {@code root} are explored, by growing them from the frontier of {@code root}.
+     * @param graph input graph
+     * @param root  vertex that every counted subset should contain
+     * @return the number of connected induced subgraphs of {@code graph} containing {@code root}
+     */
+    public int countConnectedSubsetsContaining(Graph graph, Node root) {
+        return countConnectedSubsetsContaining(toAdjacencyArray(graph), root.getIndex(), -1);
+    }
+
+    /**
+     * Returns the number of subsets of the vertices of {@code graph} that contain both {@code root} and
+     * {@code target} and that induce a connected subgraph.
+     * @param graph  input graph
+     * @param root   vertex that every counted subset should contain and from which the subsets are grown
+     * @param target second vertex that every counted subset should contain
+     * @return the number of connected induced subgraphs of {@code graph} containing {@code root} and {@code target}
+     */
+    public int countConnectedSubsetsContaining(Graph graph, Node root, Node target) {
+        return countConnectedSubsetsContaining(toAdjacencyArray(graph), root.getIndex(), target.getIndex());
+    }
+
+    /**
+     * Returns the number of subsets of the vertices of a graph that contain {@code root} (and {@code target}, if it is
+     * not -1) and that induce a connected subgraph. The graph is given as an adjacency array, such that
+     * {@code adjacency[v]} contains the indices of the neighbors of vertex {@code v}.
+     * @param adjacency adjacency array of the input graph
+     * @param root      index of the vertex that every counted subset should contain
+     * @param target    index of a second vertex that every counted subset should contain, or -1 if there is none
+     * @return the number of connected induced subgraphs containing {@code root} (and {@code target})
+     */
+    public int countConnectedSubsetsContaining(int[][] adjacency, int root, int target) {
+        byte[] state = new byte[adjacency.length];
+        int[]  yes   = new int[adjacency.length];
+
+        state[root] = YES;
+        yes[0] = root;
+
+        return countConnectedSubsetsContaining(adjacency, state, yes, 1, target);
+    }
+
+    /**
+     * Recursive method behind {@code countConnectedSubsetsContaining(int[][], int, int)}. Like
+     * {@code computeCISSmart}, it branches on the first undecided vertex adjacent to the vertices that are already in
+     * the subset: once leaving it out and once adding it. Vertices that are not adjacent to the subset are never
+     * branched on, so only connected subsets are generated.
+     * @param adjacency adjacency array of the input graph
+     * @param state     for every vertex whether it is undecided, in the subset or left out of the subset
+     * @param yes       the vertices in the subset, in the order in which they were added
+     * @param size      the number of vertices in the subset
+     * @param target    index of a vertex that should end up in the subset, or -1 if there is none
+     * @return the number of connected extensions of the current subset that satisfy the target constraint
+     */
+    private int countConnectedSubsetsContaining(int[][] adjacency, byte[] state, int[] yes, int size, int target) {
+        // Find an undecided vertex on the frontier of the subset
+        int v = -1;
+        for (int i = 0; i < size && v == -1; i++) {
+            for (int u : adjacency[yes[i]]) {
+                if (state[u] == TODO) {
+                    v = u;
+                    break;
+                }
+            }
+        }
+
+        // The subset can not be extended any further
+        if (v == -1) {
+            return (target == -1 || state[target] == YES) ? 1 : 0;
+        }
+
+        int sum = 0;
+        // Number of subsets without v. If v is the target, there are none that satisfy the target constraint.
+        if (v != target) {
+            state[v] = NO;
+            sum += countConnectedSubsetsContaining(adjacency, state, yes, size, target);
+        }
+
+        // Number of subsets with v
+        state[v] = YES;
+        yes[size] = v;
+        sum += countConnectedSubsetsContaining(adjacency, state, yes, size + 1, target);
+
+        state[v] = TODO;
+
+        return sum;
+    }
+
+    /**
+     * Returns the adjacency array of a graph. That is: an array that contains for every vertex (by index) the indices
+     * of its neighbors.
+     * @param graph input graph
+     * @return the adjacency array of {@code graph}
+     */
+    public int[][] toAdjacencyArray(Graph graph) {
+        int[][] adjacency = new int[graph.getNodeCount()][];
+        for (Node v : graph.getNodeSet()) {
+            int[] neighbors = new int[v.getDegree()];
+            int i = 0;
+            for (Edge edge : v.getEdgeSet()) {
+                neighbors[i++] = edge.getOpposite(v).getIndex();
+            }
+            adjacency[v.getIndex()] = neighbors;
+        }
+
+        return adjacency;
+    }
+
+    /**
+     * Returns the number of connected induced subgraphs of a composite graph that contain vertex {@code root}, without
+     * materializing the graph.
+     * @param graph input graph
+     * @param root  index of the vertex that every counted subset should contain
+     * @return the number of connected induced subgraphs of {@code graph} containing {@code root}
+     */
+    public int countConnectedSubsetsContaining(CompositeGraph graph, int root) {
+        return countConnectedSubsetsContaining(graph.getAdjacencyArray(), root, -1);
+    }
+
+    /**
+     * Returns whether or not a composite graph is connected, without materializing it.
+     * @param graph input graph
+     * @return whether {@code graph} is connected or not
+     */
+    public boolean isConnected(CompositeGraph graph) {
+        int[][] adjacency = graph.getAdjacencyArray();
+        // Edge case: no vertices
+        if (adjacency.length == 0) {
+            return true;
+        }
+
+        // Perform a depth first search from vertex 0 and count the visited vertices
+        boolean[] visited = new boolean[adjacency.length];
+        int[] stack = new int[adjacency.length];
+        int size = 0;
+        int count = 1;
+        visited[0] = true;
+        stack[size++] = 0;
+        while (size > 0) {
+            int u = stack[--size];
+            for (int v : adjacency[u]) {
+                if (!visited[v]) {
+                    visited[v] = true;
+                    stack[size++] = v;
+                    count++;
+                }
+            }
+        }
+
+        return count == adjacency.length;
+    }
+
     public Set<Set<Node>> getConnectedSubsets(Graph graph) {
         ArrayList<Node> yes  = new ArrayList<>();
         ArrayList<Node> no   = new ArrayList<>();
@@ -254,22 +444,37 @@ public class GraphAnalyzer {
      * @return a maximum matching of {@code graph}
      */
     public Set<Edge> getRandomMaximumMatching(Graph graph) {
+        return getRandomMaximumMatching(graph, new Random());
+    }
+
+    /**
+     * Returns a maximum matching of a graph, where all random choices are made by {@code random}. Passing a seeded
+     * {@code Random} therefore makes the matching reproducible.
+     * @param graph  input graph
+     * @param random source of randomness
+     * @return a maximum matching of {@code graph}
+     */
+    public Set<Edge> getRandomMaximumMatching(Graph graph, Random random) {
         Set<Edge> M = new HashSet<>();
         int previousMatchingSize;
         do {
             previousMatchingSize = M.size();
-            M = augmentMatching(graph, M);
+            M = augmentMatching(graph, M, random);
         } while (M.size() > previousMatchingSize);
 
         return M;
     }
 
     public Set<Edge> getRandomMatching(Graph graph, int size) {
+        return getRandomMatching(graph, size, new Random());
+    }
+
+    public Set<Edge> getRandomMatching(Graph graph, int size, Random random) {
         Set<Edge> M = new HashSet<>();
         int previousMatchingSize;
         do {
             previousMatchingSize = M.size();
-            M = augmentMatching(graph, M);
+            M = augmentMatching(graph, M, random);
         } while (M.size() > previousMatchingSize && M.size() < size);
         if (M.size() == previousMatchingSize) {
             M = null;
@@ -284,10 +489,11 @@ public class GraphAnalyzer {
      * If there is no such matching (i.e.: M is a maximum matching), the method returns M instead.
      * @param graph input graph
      * @param M     matching that needs to be augmented
+     * @param random source of randomness for the order in which augmenting paths are tried
      * @return a matching {@code M'} of {@code graph}, such that {@code M'.size() = M.size() + 1} if such a matching
      *         exists or {@code M} if no such matching exists.
      */
-    private Set<Edge> augmentMatching(Graph graph, Set<Edge> M) {
+    private Set<Edge> augmentMatching(Graph graph, Set<Edge> M, Random random) {
         // Special case: in case of a (near-)perfect matching, there is no need to augment it.
         // This is not necessary for correctness but serves as a speedup
         if (M.size() >= graph.getNodeCount() / 2) {
@@ -307,11 +513,11 @@ public class GraphAnalyzer {
 
         ArrayList<Node> augmentingPath = new ArrayList<>();
         // Try to find augmenting paths from any free node in a random order
-        Collections.shuffle(free);
+        Collections.shuffle(free, random);
         for (Node s : free) {
             ArrayList<Node> partialPath = new ArrayList<>();
             partialPath.add(s);
-            augmentingPath = findAugmentingPath(graph, M, free, covered, partialPath);
+            augmentingPath = findAugmentingPath(graph, M, free, covered, partialPath, random);
         }
 
         if (augmentingPath == null) {
@@ -344,11 +550,12 @@ public class GraphAnalyzer {
      * @param free        set of vertices that are not covered by {@code M}
      * @param covered     set of vertices that are covered by {@code M}
      * @param partialPath path to extend into an augmenting path
+     * @param random      source of randomness for the order in which edges are tried
      * @return an extension of {@code partialPath} that is an augmenting path for {@code M}
      */
     private ArrayList<Node> findAugmentingPath(Graph graph, Set<Edge> M,
                                                ArrayList<Node> free, ArrayList<Node> covered,
-                                               ArrayList<Node> partialPath) {
+                                               ArrayList<Node> partialPath, Random random) {
         Node lastInPath = partialPath.get(partialPath.size() - 1);
 
         if (partialPath.size() > 1 && free.contains(lastInPath)) {
@@ -382,12 +589,12 @@ public class GraphAnalyzer {
 
         Node next2 = null;
         ArrayList<Edge> edges = new ArrayList<>(next1.getEdgeSet());
-        Collections.shuffle(edges);
+        Collections.shuffle(edges, random);
         for (Edge edge : edges) {
             if (!M.contains(edge) && !partialPath.contains(edge.getOpposite(next1))) {
                 next2 = edge.getOpposite(next1);
                 partialPath.add(next2);
-                if (findAugmentingPath(graph, M, free, covered, partialPath) != null) {
+                if (findAugmentingPath(graph, M, free, covered, partialPath, random) != null) {
                     return partialPath;
                 }
 
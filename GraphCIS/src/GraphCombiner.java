@@ -47,6 +47,76 @@ public class GraphCombiner {
         return link;
     }
 
+    /**
+     * Returns a view of the gadget that {@code makeGadget4Link(gadget, repeats)} would construct: a chain of
+     * {@code repeats} references to {@code gadget}, where nodes 'c' and 'd' of every copy are linked to nodes 'a' and
+     * 'b' of the next copy respectively. Contrary to {@code makeGadget4Link}, no graph is copied. The link nodes of
+     * the view are nodes 'a' and 'b' of the first copy and 'c' and 'd' of the last copy.
+     * @param gadget  gadget to repeat
+     * @param repeats number of copies of {@code gadget}
+     * @return a composite graph representing the chain of gadgets
+     */
+    public CompositeGraph makeGadget4LinkView(Gadget4 gadget, int repeats) {
+        if (repeats <= 0) {
+            throw new IllegalArgumentException("A Gadget4 should be repeated at least once. Got: " + repeats + ".");
+        }
+
+        CompositeGraph view = new CompositeGraph();
+        int a = gadget.getA().getIndex();
+        int b = gadget.getB().getIndex();
+        int c = gadget.getC().getIndex();
+        int d = gadget.getD().getIndex();
+
+        int first    = view.addComponent(gadget);
+        int previous = first;
+        for (int i = 1; i < repeats; i++) {
+            int offset = view.addComponent(gadget);
+            view.addLink(previous + c, offset + a);
+            view.addLink(previous + d, offset + b);
+            previous = offset;
+        }
+
+        view.setLinkNodes(first + a, first + b, previous + c, previous + d);
+
+        return view;
+    }
+
+    /**
+     * Returns a view of the gadget that {@code makeGadget1Link(gadget, repeats)} would construct: a complete binary
+     * tree of new hub nodes, whose leaves are {@code repeats} references to {@code gadget}. Contrary to
+     * {@code makeGadget1Link}, no graph is copied. The link node of the view is the root of the tree of hubs (or the
+     * link node of {@code gadget} itself if {@code repeats} is 1).
+     * @param gadget  gadget to repeat
+     * @param repeats number of copies of {@code gadget}, which should be a power of 2
+     * @return a composite graph representing the linked gadgets
+     */
+    public CompositeGraph makeGadget1LinkView(Gadget1 gadget, int repeats) {
+        if (repeats <= 0 || ((repeats & (repeats - 1)) != 0)) {
+            throw new IllegalArgumentException("You can only repeat a Gadget1 by a power of 2 times.");
+        }
+
+        CompositeGraph view = new CompositeGraph();
+        int[] level = new int[repeats];
+        for (int i = 0; i < repeats; i++) {
+            level[i] = view.addComponent(gadget) + gadget.getLinkNode().getIndex();
+        }
+
+        // Link pairs of link nodes through a new hub, which becomes the link node on the next level
+        while (level.length > 1) {
+            int[] next = new int[level.length / 2];
+            for (int i = 0; i < next.length; i++) {
+                next[i] = view.addNode();
+                view.addLink(level[2 * i], next[i]);
+                view.addLink(level[2 * i + 1], next[i]);
+            }
+            level = next;
+        }
+
+        view.setLinkNodes(level[0]);
+
+        return view;
+    }
+
     private Graph combineGraphs(Graph graph1, Graph graph2) {
         Graph graph = new SingleGraph("combined");
 
@@ -84,7 +154,7 @@ public class GraphCombiner {
     }
 
     public Gadget1 makeGadget1Link(Gadget1 gadget, int repeats) {
-        if (repeats > 0 && ((repeats & (repeats - 1)) == 0)) {
+        if (repeats <= 0 || ((repeats & (repeats - 1)) != 0)) {
             throw new IllegalArgumentException("You can only repeat a Gadget1 by a power of 2 times.");
         }
 
@@ -95,4 +165,20 @@ public class GraphCombiner {
 
         return link;
     }
+
+    /**
+     * Computes the rooted counts of the gadget that {@code makeGadget1Link(gadget, repeats)} would construct, without
+     * constructing it. Only {@code gadget} itself is enumerated; the counts of every further level follow from those
+     * of the previous level.
+     * @param gadget  gadget to repeat
+     * @param repeats number of copies of {@code gadget}, which should be a power of 2
+     * @return the rooted counts of the linked gadget
+     */
+    public Gadget1Counts makeGadget1LinkCounts(Gadget1 gadget, int repeats) {
+        if (repeats <= 0 || ((repeats & (repeats - 1)) != 0)) {
+            throw new IllegalArgumentException("You can only repeat a Gadget1 by a power of 2 times.");
+        }
+
+        return Gadget1Counts.of(gadget).repeat(Integer.numberOfTrailingZeros(repeats));
+    }
 }
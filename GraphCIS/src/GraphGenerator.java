@@ -132,6 +132,18 @@ public class GraphGenerator {
      *         one vertex has degree that is 1 smaller and of which a cycle is a subgraph.
      */
     public Graph generateRandomLinkedCycle(int n, int d) {
+        return generateRandomLinkedCycle(n, d, new Random());
+    }
+
+    /**
+     * Generates a randomly linked cycle as in {@code generateRandomLinkedCycle(int, int)}, where all random choices are
+     * made by {@code random}. Passing a seeded {@code Random} therefore always yields the same graph.
+     * @param n      number of vertices of the graph
+     * @param d      maximum degree of the graph
+     * @param random source of randomness
+     * @return a randomly linked cycle on {@code n} vertices with maximum degree {@code d}
+     */
+    public Graph generateRandomLinkedCycle(int n, int d, Random random) {
         Graph graph = generateCompleteGraph(n);
 
         if (n <= d + 1) {
@@ -149,7 +161,7 @@ public class GraphGenerator {
 
         Set<Edge> matching;
         for (int i = 0; i < d - 2; i++) {
-            matching = analyzer.getRandomMaximumMatching(graph);
+            matching = analyzer.getRandomMaximumMatching(graph, random);
 
             for (Edge edge : matching) {
                 graph.removeEdge(edge);
@@ -428,8 +440,12 @@ public class GraphGenerator {
     }
 
     public Gadget gadgetizeGraph(Graph graph, int l) {
+        return gadgetizeGraph(graph, l, new Random());
+    }
+
+    public Gadget gadgetizeGraph(Graph graph, int l, Random random) {
         Node[] linkNodes = new Node[2 * l];
-        ArrayList<Edge> matching = new ArrayList<>(analyzer.getRandomMatching(graph, l));
+        ArrayList<Edge> matching = new ArrayList<>(analyzer.getRandomMatching(graph, l, random));
 
         for (int i = 0; i < matching.size(); i++) {
             Edge edge = matching.get(i);
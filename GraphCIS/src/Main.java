@@ -22,6 +22,7 @@ public class Main {
     private final GraphGenerator generator = GraphGenerator.getInstance();
     private final GraphCombiner  combiner  = GraphCombiner.getInstance();
     private final GraphAnalyzer  analyzer  = GraphAnalyzer.getInstance();
+    private final Metrics        metrics   = Metrics.getInstance();
 
     private void run() {
         generateGadgets(10, 10, 3, 3, 3, 3, 100, 50);
@@ -76,12 +77,28 @@ public class Main {
                                 if (i < iterations - 1 && (i + 1) % notifyInterval == 0) {
                                     System.out.println(i + 1);
                                 }
+                                metrics.reportIfDue();
 
                                 Gadget gadget;
+                                boolean connected;
                                 do {
+                                    long start = metrics.startTimer();
                                     gadget = generator.generateRandomCycleGadget(n, d, l);
-                                } while (!analyzer.isConnected(gadget));
+                                    metrics.stopTimer("gadget.generation", start);
+                                    metrics.increment("gadget.generated");
+
+                                    start = metrics.startTimer();
+                                    connected = analyzer.isConnected(gadget);
+                                    metrics.stopTimer("gadget.connectivity", start);
+                                    if (!connected) {
+                                        metrics.increment("gadget.rejected");
+                                    }
+                                } while (!connected);
+
+                                long start = metrics.startTimer();
                                 double value = gadget.getMaxEigenvalue();
+                                metrics.stopTimer("gadget.evaluation", start);
+                                metrics.increment("gadget.evaluated");
 
                                 if (value > bestValue) {
                                     bestValue = value;
@@ -129,6 +146,9 @@ public class Main {
 
             valueWriter.close();
             graphWriter.close();
+
+            metrics.printSummary(System.err);
+            metrics.export(filenamePrefix + "_metrics" + ".csv");
         } catch (FileNotFoundException | UnsupportedEncodingException e) {
             e.printStackTrace();
         }
@@ -143,9 +163,16 @@ public class Main {
             if (i < iterations - 1 && (i + 1) % notifyInterval == 0) {
                 System.out.println(i + 1);
             }
+            metrics.reportIfDue();
 
+            long start = metrics.startTimer();
             Graph graph = generator.generateRandomLinkedCycle(n, d);
+            metrics.stopTimer("cycle.generation", start);
+
+            start = metrics.startTimer();
             int CIS = analyzer.computeCISSmart(graph);
+            metrics.stopTimer("cycle.cis", start);
+            metrics.increment("cycle.evaluated");
 
             if (CIS > best) {
                 best = CIS;
@@ -158,6 +185,8 @@ public class Main {
             }
         }
 
+        metrics.printSummary(System.err);
+
         System.out.println("BEST:  " + best);
         System.out.println("WORST: " + worst);
 
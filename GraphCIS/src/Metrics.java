@@ -0,0 +1,245 @@
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry of counters, timers and histograms for the different stages of the GraphCIS pipeline. Every metric is
+ * identified by a name such as {@code "gadget.generation"}. Counters and histograms are backed by lock free
+ * {@code LongAdder}s and atomic arrays, such that the registry can be left enabled during long experiments.
+ * Timers are histograms whose values are durations in nanoseconds.
+ */
+public class Metrics {
+    private static Metrics instance;
+
+    private final Map<String, LongAdder> counters   = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> timers     = new ConcurrentHashMap<>();
+
+    private final AtomicLong lastReport = new AtomicLong();
+    private volatile long    startTime;
+    private volatile long    reportInterval = 10_000_000_000L;
+    private volatile boolean enabled        = true;
+
+    private Metrics() {
+        reset();
+    }
+
+    /**
+     * Returns the instance of Metrics according to the singleton design pattern.
+     * @return the instance of Metrics
+     */
+    public static Metrics getInstance() {
+        if (instance == null) {
+            instance = new Metrics();
+        }
+        return instance;
+    }
+
+    /**
+     * Removes all recorded values and restarts the clock that is used to compute rates.
+     */
+    public void reset() {
+        counters.clear();
+        histograms.clear();
+        timers.clear();
+        startTime = System.nanoTime();
+        lastReport.set(startTime);
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets the minimal time between two summaries printed by {@code reportIfDue()}.
+     * @param millis interval in milliseconds
+     */
+    public void setReportInterval(long millis) {
+        this.reportInterval = millis * 1_000_000L;
+    }
+
+    public void increment(String name) {
+        add(name, 1);
+    }
+
+    public void add(String name, long delta) {
+        if (!enabled) return;
+        counters.computeIfAbsent(name, k -> new LongAdder()).add(delta);
+    }
+
+    public long getCount(String name) {
+        LongAdder counter = counters.get(name);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * Adds a value to the histogram with the given name.
+     * @param name  name of the histogram
+     * @param value value to record
+     */
+    public void record(String name, long value) {
+        if (!enabled) return;
+        histograms.computeIfAbsent(name, k -> new Histogram()).record(value);
+    }
+
+    /**
+     * Returns the current time, to be passed to {@code stopTimer(String, long)} once the timed stage is finished.
+     * @return current value of {@code System.nanoTime()}, or 0 if the registry is disabled
+     */
+    public long startTimer() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time that elapsed since {@code start} in the timer with the given name.
+     * @param name  name of the timer
+     * @param start value returned by {@code startTimer()}
+     */
+    public void stopTimer(String name, long start) {
+        if (!enabled || start == 0) return;
+        timers.computeIfAbsent(name, k -> new Histogram()).record(System.nanoTime() - start);
+    }
+
+    /**
+     * Prints a summary to {@code System.err} if at least the report interval has passed since the previous summary.
+     * Only one of any number of concurrent callers prints the summary.
+     */
+    public void reportIfDue() {
+        if (!enabled) return;
+
+        long now  = System.nanoTime();
+        long last = lastReport.get();
+        if (now - last >= reportInterval && lastReport.compareAndSet(last, now)) {
+            printSummary(System.err);
+        }
+    }
+
+    /**
+     * Prints all counters (with their rate per second), timers and histograms.
+     * @param out stream to print to
+     */
+    public void printSummary(PrintStream out) {
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("[metrics] %.1f s elapsed%n", seconds));
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(counters).entrySet()) {
+            long count = entry.getValue().sum();
+            summary.append(String.format("  %-32s %12d  (%.1f/s)%n", entry.getKey(), count, count / seconds));
+        }
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(timers).entrySet()) {
+            Histogram timer = entry.getValue();
+            summary.append(String.format("  %-32s %12d  total %.3f s, mean %.3f ms, p99 %.3f ms%n",
+                    entry.getKey(), timer.getCount(), timer.getSum() / 1e9, timer.getMean() / 1e6,
+                    timer.getQuantile(0.99) / 1e6));
+        }
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+            Histogram histogram = entry.getValue();
+            summary.append(String.format("  %-32s %12d  mean %.1f, min %d, max %d%n",
+                    entry.getKey(), histogram.getCount(), histogram.getMean(), histogram.getMin(),
+                    histogram.getMax()));
+        }
+
+        out.print(summary);
+        out.flush();
+    }
+
+    /**
+     * Writes all metrics to a semicolon separated file with one metric per line. Timer values are in nanoseconds.
+     * @param filename name of the file to write to
+     */
+    public void export(String filename) {
+        try {
+            PrintWriter writer = new PrintWriter(filename, "UTF-8");
+            writer.println("name;type;count;sum;mean;min;max;p50;p90;p99");
+            for (Map.Entry<String, LongAdder> entry : new TreeMap<>(counters).entrySet()) {
+                writer.println(entry.getKey() + ";counter;" + entry.getValue().sum() + ";;;;;;;");
+            }
+            for (Map.Entry<String, Histogram> entry : new TreeMap<>(timers).entrySet()) {
+                writer.println(entry.getKey() + ";timer;" + entry.getValue().toCsv());
+            }
+            for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+                writer.println(entry.getKey() + ";histogram;" + entry.getValue().toCsv());
+            }
+            writer.close();
+        } catch (FileNotFoundException | UnsupportedEncodingException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Histogram of non-negative values with one bucket per power of two. Quantiles are therefore approximations that
+     * are accurate up to a factor 2, which is enough to spot where the time goes.
+     */
+    private static class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(64);
+        private final LongAdder  count = new LongAdder();
+        private final LongAdder  sum   = new LongAdder();
+        private final AtomicLong min   = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicLong max   = new AtomicLong(Long.MIN_VALUE);
+
+        private void record(long value) {
+            value = Math.max(value, 0);
+            buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(value) - (value == 0 ? 0 : 1));
+            count.increment();
+            sum.add(value);
+            min.accumulateAndGet(value, Math::min);
+            max.accumulateAndGet(value, Math::max);
+        }
+
+        private long getCount() {
+            return count.sum();
+        }
+
+        private long getSum() {
+            return sum.sum();
+        }
+
+        private double getMean() {
+            long n = getCount();
+            return n == 0 ? 0 : getSum() / (double) n;
+        }
+
+        private long getMin() {
+            return getCount() == 0 ? 0 : min.get();
+        }
+
+        private long getMax() {
+            return getCount() == 0 ? 0 : max.get();
+        }
+
+        /**
+         * Returns the upper bound of the bucket in which the {@code q}-quantile lies.
+         * @param q quantile between 0 and 1
+         * @return approximation of the {@code q}-quantile
+         */
+        private long getQuantile(double q) {
+            long n = getCount();
+            long seen = 0;
+            for (int i = 0; i < 64; i++) {
+                seen += buckets.get(i);
+                if (seen > 0 && seen >= q * n) {
+                    return Math.min(i == 63 ? Long.MAX_VALUE : (1L << (i + 1)) - 1, getMax());
+                }
+            }
+
+            return getMax();
+        }
+
+        private String toCsv() {
+            return getCount() + ";" + getSum() + ";" + getMean() + ";" + getMin() + ";" + getMax() + ";" +
+                    getQuantile(0.5) + ";" + getQuantile(0.9) + ";" + getQuantile(0.99);
+        }
+    }
+}
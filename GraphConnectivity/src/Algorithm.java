@@ -1,14 +1,17 @@
-import org.graphstream.graph.Edge;
 import org.graphstream.graph.Graph;
-import org.graphstream.graph.Node;
-import org.graphstream.graph.implementations.Graphs;
-import org.graphstream.graph.implementations.MultiGraph;
 
+import java.math.BigInteger;
 import java.util.*;
 
 public class Algorithm {
     private static Algorithm instance;
 
+    private final KargerStein kargerStein = new KargerStein();
+
+    // The random streams of an estimation with a seed, see newRandom()
+    private static final int CUT_STREAM      = 0;
+    private static final int SAMPLING_STREAM = 1;
+
     private Algorithm() {}
 
     /**
@@ -22,198 +25,625 @@ public class Algorithm {
         return instance;
     }
 
-    private Edge getRandomEdge(Graph graph) {
+    public Set<String> kargersCut(Graph graph) {
+        CompactGraph compactGraph = new CompactGraph(graph);
+        int[] cut = kargersCut(compactGraph, new SplittableRandom());
+
+        Set<String> edges = new HashSet<>();
+        for (int edge : cut) {
+            edges.add(compactGraph.getEdgeId(edge));
+        }
+
+        return edges;
+    }
+
+    /**
+     * Performs a single trial of Karger's algorithm without modifying or copying the graph.
+     * Contracting uniformly random edges until two super vertices remain is equivalent to going through the edges in a
+     * uniformly random order and contracting every edge whose endpoints are not yet in the same super vertex (as in
+     * Kruskal's algorithm). The super vertices are therefore kept in a union-find structure and the random order is
+     * generated lazily by a Fisher-Yates shuffle, which makes a trial take near-linear time.
+     * @param graph  input graph
+     * @param random source of randomness
+     * @return the indices of the edges between the two remaining super vertices, in increasing order
+     */
+    public int[] kargersCut(CompactGraph graph, SplittableRandom random) {
         int m = graph.getEdgeCount();
-        ArrayList<Edge> edges = new ArrayList<>(graph.getEdgeSet());
-
-        Random random = new Random();
-
-        return edges.get(random.nextInt(m));
-    }
-
-    private MultiGraph contractEdge(MultiGraph graph, Edge edge) {
-        // Clone the graph
-        MultiGraph clone = (MultiGraph) Graphs.clone(graph);
-        Edge contractingEdge = clone.getEdge(edge.getId());
-
-        // Obtain the two vertices to be merged
-        Node v1 = contractingEdge.getNode0();
-        Node v2 = contractingEdge.getNode1();
-        Set<Node> endPoints = new HashSet<>();
-        endPoints.add(v1);
-        endPoints.add(v2);
-
-        // Make a new super vertex that will combine the two vertices
-        String superVertexID = v1.getId() + "+" + v2.getId();
-        clone.addNode(superVertexID);
-        Node superVertex = clone.getNode(superVertexID);
-
-        // For both of the two endpoints, remove any edges and instead redirect them to the super vertex
-        for (Node endPoint : endPoints) {
-            Set<String> edgeIds = edgeSetToIdSet(new HashSet<>(endPoint.getEdgeSet()));
-
-            // Iterate over all edges from the current endpoint
-            for (String edgeId : edgeIds) {
-                // Get an edge from the current endpoint
-                Edge redirectingEdge = clone.getEdge(edgeId);
-                Node opposite        = redirectingEdge.getOpposite(endPoint);
-
-                // If this is an edge between both endpoints of the contracted edge, simply remove it
-                if (endPoints.contains(opposite)) {
-                    clone.removeEdge(redirectingEdge);
-                } else {
-                    // Otherwise remove it, but also add one to the super vertex
-                    clone.removeEdge(redirectingEdge);
-                    clone.addEdge(edgeId, superVertex.getId(), opposite.getId());
-                }
+        UnionFind superVertices = new UnionFind(graph.getNodeCount());
+
+        int[] order = new int[m];
+        for (int i = 0; i < m; i++) {
+            order[i] = i;
+        }
+
+        for (int i = 0; i < m && superVertices.getCount() > 2; i++) {
+            // Pick the i-th edge of the random order
+            int j = i + random.nextInt(m - i);
+            int edge = order[j];
+            order[j] = order[i];
+            order[i] = edge;
+
+            superVertices.union(graph.getEndpoint0(edge), graph.getEndpoint1(edge));
+        }
+
+        // The cut consists of all edges whose endpoints ended up in different super vertices
+        int size = 0;
+        int[] cut = new int[m];
+        for (int edge = 0; edge < m; edge++) {
+            if (superVertices.find(graph.getEndpoint0(edge)) != superVertices.find(graph.getEndpoint1(edge))) {
+                cut[size++] = edge;
             }
         }
 
-        // All edges have been redirected to the super vertex. We can now safely remove the original two vertices.
-        clone.removeNode(v1);
-        clone.removeNode(v2);
+        return Arrays.copyOf(cut, size);
+    }
 
-        return clone;
+    public Set<Set<String>> enumerateRandomSmallCuts(Graph graph, double alpha) {
+        CompactGraph compactGraph = new CompactGraph(graph);
+
+        Set<Set<String>> cuts = new HashSet<>();
+        for (Cut cut : enumerateRandomSmallCuts(compactGraph, alpha).getCuts()) {
+            Set<String> edges = new HashSet<>();
+            for (int edge : cut.getEdges()) {
+                edges.add(compactGraph.getEdgeId(edge));
+            }
+            cuts.add(edges);
+        }
+
+        return cuts;
+    }
+
+    /**
+     * Enumerates cuts of a graph with the recursive contraction algorithm, repeated {@code (log2 n)^2} times. Only
+     * the cuts within a factor {@code alpha} of the size of a minimum cut are kept; the others are rejected as soon as
+     * they are found.
+     * @param graph input graph
+     * @param alpha factor that determines how far the graph is contracted at every level of the recursion, and which
+     *              cuts are kept
+     * @return the distinct cuts found
+     */
+    public CutTable enumerateRandomSmallCuts(CompactGraph graph, double alpha) {
+        return enumerateRandomSmallCuts(graph, alpha, new SplittableRandom());
     }
 
-    private MultiGraph contractRandomEdge(MultiGraph graph) {
-        Edge e = getRandomEdge(graph);
-        return contractEdge(graph, e);
+    /**
+     * Enumerates cuts of a graph as {@code enumerateRandomSmallCuts(graph, alpha)} does, with the given source of
+     * randomness.
+     * @param graph  input graph
+     * @param alpha  factor that determines how far the graph is contracted at every level of the recursion, and which
+     *               cuts are kept
+     * @param random source of randomness
+     * @return the distinct cuts found
+     */
+    public CutTable enumerateRandomSmallCuts(CompactGraph graph, double alpha, SplittableRandom random) {
+        return enumerateRandomSmallCuts(graph, alpha, StoerWagner.minimumCutSize(graph), random);
     }
 
-    private MultiGraph contractDownToSize(MultiGraph graph, int size) {
+    /**
+     * Enumerates cuts of a graph as {@code enumerateRandomSmallCuts(graph, alpha, random)} does, for a graph of which
+     * the size of a minimum cut is already known.
+     * @param graph          input graph
+     * @param alpha          factor that determines how far the graph is contracted at every level of the recursion,
+     *                       and which cuts are kept
+     * @param minimumCutSize size of a minimum cut of {@code graph}
+     * @param random         source of randomness
+     * @return the distinct cuts found
+     */
+    public CutTable enumerateRandomSmallCuts(CompactGraph graph, double alpha, int minimumCutSize,
+                                             SplittableRandom random) {
+        if (alpha < 1) {
+            throw new IllegalArgumentException("Algorithm.enumerateRandomSmallCuts() was called with argument " +
+                    "alpha = " + alpha + ". It should be at least 1.");
+        }
+
         int n = graph.getNodeCount();
-        if (size > n) {
-            throw new IllegalArgumentException("Called funtcion Algorithm.contractDownToSize() with the " +
-                    "second argument 'size' being larger than the number of vertices in the inputed graph.");
+        int iterations = (int) Math.pow(Math.log(n) / Math.log(2), 2);
+
+        int maxCutSize = getMaxCutSize(minimumCutSize, alpha);
+
+        return kargerStein.enumerateCuts(graph, alpha, iterations, maxCutSize, random);
+    }
+
+    /**
+     * Enumerates cuts of a graph with the recursive contraction algorithm, but stops before all {@code (log2 n)^2}
+     * repetitions have been run once few new cuts are still being discovered. After every repetition, the fraction of
+     * the cuts found by a further repetition that would be new is estimated in the manner of Good and Turing: by the
+     * number of cuts that were found by exactly one repetition, divided by the total number of cuts found by all
+     * repetitions together (counting a cut once for every repetition that found it). The enumeration stops once this
+     * estimate of the unseen cut mass drops below {@code threshold}. As long as every cut found so far was rejected,
+     * nothing is known about the discovery rate, and the unseen cut mass is taken to be 1, so the enumeration does not
+     * stop early. Repetitions are run in batches of the size of the thread pool, and cuts are merged in the order of
+     * the repetitions, so the result does not depend on the number of threads. As in {@code enumerateRandomSmallCuts},
+     * only the cuts within a factor {@code alpha} of the size of a minimum cut are kept.
+     * @param graph     input graph
+     * @param alpha     factor that determines how far the graph is contracted at every level of the recursion, and
+     *                  which cuts are kept
+     * @param threshold threshold on the estimated unseen cut mass at which to stop
+     * @param random    source of randomness
+     * @return the cuts found and statistics on the enumeration
+     */
+    public CutEnumeration enumerateRandomSmallCutsAdaptively(CompactGraph graph, double alpha, double threshold,
+                                                             SplittableRandom random) {
+        return enumerateRandomSmallCutsAdaptively(graph, alpha, StoerWagner.minimumCutSize(graph), threshold, random);
+    }
+
+    /**
+     * Enumerates cuts of a graph as {@code enumerateRandomSmallCutsAdaptively(graph, alpha, threshold, random)} does,
+     * for a graph of which the size of a minimum cut is already known.
+     * @param graph          input graph
+     * @param alpha          factor that determines how far the graph is contracted at every level of the recursion,
+     *                       and which cuts are kept
+     * @param minimumCutSize size of a minimum cut of {@code graph}
+     * @param threshold      threshold on the estimated unseen cut mass at which to stop
+     * @param random         source of randomness
+     * @return the cuts found and statistics on the enumeration
+     */
+    public CutEnumeration enumerateRandomSmallCutsAdaptively(CompactGraph graph, double alpha, int minimumCutSize,
+                                                             double threshold, SplittableRandom random) {
+        if (alpha < 1) {
+            throw new IllegalArgumentException("Algorithm.enumerateRandomSmallCutsAdaptively() was called with " +
+                    "argument alpha = " + alpha + ". It should be at least 1.");
         }
 
-        while (graph.getNodeCount() > size) {
-            graph = contractRandomEdge(graph);
+        int n = graph.getNodeCount();
+        int planned = Math.max(1, (int) Math.pow(Math.log(n) / Math.log(2), 2));
+        int batchSize = Math.max(1, kargerStein.getParallelism());
+        int maxCutSize = getMaxCutSize(minimumCutSize, alpha);
+
+        CutTable cuts = new CutTable();
+        int used = 0;
+        double unseenMass = 1;
+        while (used < planned) {
+            int batch = Math.min(batchSize, planned - used);
+            for (CutTable repetition : kargerStein.enumerateCutsPerRepetition(graph, alpha, batch, maxCutSize,
+                    random)) {
+                cuts.addAll(repetition);
+                used++;
+                unseenMass = cuts.getTotalCount() == 0 ? 1 : cuts.getSingletonCount() / (double) cuts.getTotalCount();
+
+                // A single repetition can not tell anything about the discovery rate
+                if (used > 1 && unseenMass < threshold) {
+                    return new CutEnumeration(cuts, used, planned, unseenMass, minimumCutSize, maxCutSize);
+                }
+            }
         }
 
-        return graph;
+        return new CutEnumeration(cuts, used, planned, unseenMass, minimumCutSize, maxCutSize);
     }
 
-    public Set<String> kargersCut(Graph graph) {
-        MultiGraph clone = contractDownToSize((MultiGraph) graph, 2);
+    /**
+     * Deterministically enumerates all cuts of a graph within a factor {@code alpha} of the size of a minimum cut,
+     * whose sides are both connected. These are the cuts that the recursive contraction algorithm looks for.
+     * @param graph input graph, which should be connected
+     * @param alpha factor of the minimum cut size
+     * @return all such cuts
+     */
+    public CutTable enumerateSmallCuts(CompactGraph graph, double alpha) {
+        return enumerateSmallCuts(graph, alpha, StoerWagner.minimumCutSize(graph));
+    }
 
-        Set<Edge>   cut   = new HashSet<>(clone.getEdgeSet());
-        Set<String> edges = new HashSet<>();
+    /**
+     * Enumerates cuts of a graph as {@code enumerateSmallCuts(graph, alpha)} does, for a graph of which the size of a
+     * minimum cut is already known.
+     * @param graph          input graph, which should be connected
+     * @param alpha          factor of the minimum cut size
+     * @param minimumCutSize size of a minimum cut of {@code graph}
+     * @return all such cuts
+     */
+    public CutTable enumerateSmallCuts(CompactGraph graph, double alpha, int minimumCutSize) {
+        if (alpha < 1) {
+            throw new IllegalArgumentException("Algorithm.enumerateSmallCuts() was called with argument alpha = " +
+                    alpha + ". It should be at least 1.");
+        }
+        if (!isConnected(graph, minimumCutSize)) {
+            throw new IllegalArgumentException("Algorithm.enumerateSmallCuts() was called with a graph that is not " +
+                    "connected. Its cuts without edges need not have connected sides, so they can not be " +
+                    "enumerated.");
+        }
+
+        return new ExactCutEnumerator(graph).enumerateUpTo(getMaxCutSize(minimumCutSize, alpha));
+    }
+
+    /**
+     * @param minimumCutSize size of a minimum cut of a graph
+     * @param alpha          factor of the minimum cut size
+     * @return the number of edges of the largest cuts within a factor {@code alpha} of {@code minimumCutSize}
+     */
+    public int getMaxCutSize(int minimumCutSize, double alpha) {
+        // Guard against alpha * minimumCutSize ending up just below an integer
+        return (int) Math.floor(alpha * minimumCutSize + 1e-9);
+    }
+
+    /**
+     * Counts the connected spanning subgraphs of a graph exactly, with the frontier-based dynamic program of
+     * {@code FrontierCounter}. This is only feasible for graphs with a narrow frontier.
+     * @param graph input graph
+     * @return the number of subsets of the edges of {@code graph} that connect all of its vertices
+     */
+    public BigInteger countSpanningSubgraphs(Graph graph) {
+        return new FrontierCounter(new CompactGraph(graph)).count();
+    }
+
+    public double approximateNumberOfSpanningSubgraphs(Graph graph, double epsilon) {
+        return approximateNumberOfSpanningSubgraphs(graph, epsilon, new EstimationSettings());
+    }
+
+    /**
+     * Estimates the number of connected spanning subgraphs of a graph. For graphs with more than about 1000 edges
+     * this number does not fit in a double; use {@code log2ApproximateNumberOfSpanningSubgraphs} for those.
+     * @param graph    input graph
+     * @param epsilon  relative error of the estimate of the fraction of disconnected subgraphs
+     * @param settings settings of the estimation
+     * @return the estimated number of connected spanning subgraphs
+     */
+    public double approximateNumberOfSpanningSubgraphs(Graph graph, double epsilon, EstimationSettings settings) {
+        return Math.scalb(approximateFractionOfConnectedSubgraphs(graph, epsilon, settings), graph.getEdgeCount());
+    }
 
-        for (Edge cutEdge : cut) {
-            edges.add(cutEdge.getId());
+    /**
+     * Estimates the base 2 logarithm of the number of connected spanning subgraphs of a graph, which is finite for
+     * any number of edges.
+     * @param graph    input graph
+     * @param epsilon  relative error of the estimate of the fraction of disconnected subgraphs
+     * @param settings settings of the estimation
+     * @return the estimated base 2 logarithm of the number of connected spanning subgraphs
+     */
+    public double log2ApproximateNumberOfSpanningSubgraphs(Graph graph, double epsilon, EstimationSettings settings) {
+        CompactGraph compactGraph = new CompactGraph(graph);
+        if (settings.isReduceGraph()) {
+            return graph.getEdgeCount() + log2FractionOfConnectedSubgraphsOfReduction(compactGraph, epsilon, settings);
+        }
+        BigInteger exact = countExactlyIfNarrow(compactGraph, settings);
+        if (exact != null) {
+            return log2(exact);
         }
 
-        return edges;
+        double disconnected = estimateFractionOfDisconnectedSubgraphs(compactGraph, epsilon, settings);
+        return graph.getEdgeCount() + Math.log1p(-disconnected) / Math.log(2);
     }
 
-    private Set<Set<String>> recursiveContraction(Graph graph, double alpha) {
-        int n = graph.getNodeCount();
+    /**
+     * Estimates the fraction of all subsets of the edges of a graph that connect all of its vertices.
+     * @param graph    input graph
+     * @param epsilon  relative error of the estimate of the fraction of disconnected subgraphs
+     * @param settings settings of the estimation
+     * @return the estimated fraction of connected spanning subgraphs
+     */
+    public double approximateFractionOfConnectedSubgraphs(Graph graph, double epsilon, EstimationSettings settings) {
+        CompactGraph compactGraph = new CompactGraph(graph);
+        if (settings.isReduceGraph()) {
+            return Math.pow(2, log2FractionOfConnectedSubgraphsOfReduction(compactGraph, epsilon, settings));
+        }
+        BigInteger exact = countExactlyIfNarrow(compactGraph, settings);
+        if (exact != null) {
+            return fraction(exact, compactGraph.getEdgeCount());
+        }
+
+        return 1 - estimateFractionOfDisconnectedSubgraphs(compactGraph, epsilon, settings);
+    }
+
+    /**
+     * Estimates the fraction of all subsets of the edges of a graph that leave some vertices disconnected. This is
+     * what the Karp-Luby estimator estimates directly, so it has the relative error {@code epsilon}.
+     * @param graph    input graph
+     * @param epsilon  relative error
+     * @param settings settings of the estimation
+     * @return the estimated fraction of disconnected spanning subgraphs
+     */
+    public double approximateFractionOfDisconnectedSubgraphs(Graph graph, double epsilon,
+                                                             EstimationSettings settings) {
+        CompactGraph compactGraph = new CompactGraph(graph);
+        if (settings.isReduceGraph()) {
+            // The fraction of connected subgraphs can be close to 1, so expm1 keeps the relative error of its
+            // complement
+            double log2 = log2FractionOfConnectedSubgraphsOfReduction(compactGraph, epsilon, settings);
+            return -Math.expm1(log2 * Math.log(2));
+        }
+        BigInteger exact = countExactlyIfNarrow(compactGraph, settings);
+        if (exact != null) {
+            int m = compactGraph.getEdgeCount();
+            return fraction(BigInteger.ONE.shiftLeft(m).subtract(exact), m);
+        }
 
-        Set<Set<String>> output = new HashSet<>();
+        return estimateFractionOfDisconnectedSubgraphs(compactGraph, epsilon, settings);
+    }
 
-        if (n == 2) {
-            Set<String> cut = kargersCut(graph);
-            output.add(cut);
+    /**
+     * Estimates the number of connected spanning subgraphs of the graph of a cut repository, taking the cuts from the
+     * repository instead of enumerating them. Repeated estimations on the same graph, for example for a range of
+     * values of epsilon, then only enumerate cuts when a smaller epsilon than before needs larger cuts.
+     * @param repository cuts of the input graph
+     * @param epsilon    relative error of the estimate of the fraction of disconnected subgraphs
+     * @param settings   settings of the estimation; the cut enumeration settings of the repository are used instead
+     *                   of those of {@code settings}
+     * @return the estimated number of connected spanning subgraphs
+     */
+    public double approximateNumberOfSpanningSubgraphs(CutRepository repository, double epsilon,
+                                                       EstimationSettings settings) {
+        CompactGraph compactGraph = repository.getGraph();
+        int m = compactGraph.getEdgeCount();
+        BigInteger exact = countExactlyIfNarrow(compactGraph, settings);
+        if (exact != null) {
+            return Math.scalb(fraction(exact, m), m);
+        }
 
-            return output;
+        if (!repository.isConnected()) {
+            return 0;
         }
 
-        for (int i = 0; i < 2; i++) {
-            MultiGraph clone = contractDownToSize((MultiGraph) graph, (int) (n / Math.pow(2, 1 / (2 * alpha) )));
-            output.addAll(recursiveContraction(clone, alpha));
+        double alpha = getAlpha(compactGraph.getNodeCount(), epsilon);
+        CompiledDNFFormula formula = repository.getFormula(alpha);
+        if (settings.isVerbose()) {
+            System.out.println(repository.getCutCount(alpha) + " cuts taken from the repository");
+        }
+        if (formula == null) {
+            return Math.scalb(1.0, m);
         }
 
-        return output;
+        return Math.scalb(1 - estimateFractionOfSatisfyingTruthAssignments(formula, epsilon, settings), m);
     }
 
-    public Set<Set<String>> enumerateRandomSmallCuts(Graph graph, double alpha) {
-        if (alpha < 1) {
-            throw new IllegalArgumentException("Algorithm.enumerateRandomSmallCuts() was called with argument alpha = " +
-                    alpha + ". It should be at least 1.");
+    /**
+     * @param graph    input graph
+     * @param settings settings of the estimation
+     * @return the exact number of connected spanning subgraphs if the settings allow counting them with the frontier
+     *         width of {@code graph}, and {@code null} otherwise
+     */
+    private BigInteger countExactlyIfNarrow(CompactGraph graph, EstimationSettings settings) {
+        return countExactlyIfNarrow(graph, null, null, settings);
+    }
+
+    /**
+     * @param graph    input graph
+     * @param present  for every edge, the number of ways in which it is present, or {@code null} for 1
+     * @param absent   for every edge, the number of ways in which it is absent, or {@code null} for 1
+     * @param settings settings of the estimation
+     * @return the exact weighted number of connected spanning subgraphs if the settings allow counting them with the
+     *         frontier width of {@code graph}, and {@code null} otherwise
+     */
+    private BigInteger countExactlyIfNarrow(CompactGraph graph, BigInteger[] present, BigInteger[] absent,
+                                            EstimationSettings settings) {
+        if (settings.getMaxExactFrontierWidth() == 0) {
+            return null;
         }
 
-        int n = graph.getNodeCount();
+        FrontierCounter counter = new FrontierCounter(graph, present, absent);
+        if (counter.getFrontierWidth() > settings.getMaxExactFrontierWidth()) {
+            return null;
+        }
+        if (settings.isVerbose()) {
+            System.out.println("Counting exactly with frontier width " + counter.getFrontierWidth());
+        }
 
-        Set<Set<String>> cuts = new HashSet<>();
-        int iterations = (int) Math.pow(Math.log(n) / Math.log(2), 2);
+        return counter.count();
+    }
 
-        // Enumerate cuts
-        for (int i = 0; i < iterations; i ++) {
-            cuts.addAll(recursiveContraction(graph, alpha));
+    /**
+     * Estimates the base 2 logarithm of the fraction of connected spanning subgraphs of a graph, after removing its
+     * loops and pendant trees and splitting it into its blocks with {@code GraphReducer}. These reductions leave every
+     * edge present with probability 1/2, so the number of connected spanning subgraphs is the factor of the reduction
+     * times those of the blocks, each of which is counted or estimated as a graph of its own. A block is counted
+     * exactly if the series and parallel reductions leave only cores that are narrow enough; those reductions are not
+     * used for estimation, as they make the failure probabilities of the edges unequal, which the enumeration of the
+     * small cuts does not take into account.
+     *
+     * Every block is estimated with relative error {@code epsilon} on its fraction {@code f} of disconnected
+     * subgraphs. The relative error of the number of connected spanning subgraphs is then at most {@code epsilon}
+     * times the sum of {@code f / (1 - f)} over the blocks, which is at most {@code epsilon D / (1 - D)} for the
+     * fraction {@code D} of disconnected subgraphs of the whole graph, as for an estimate of the whole graph.
+     * @param graph    input graph
+     * @param epsilon  relative error of the estimate of the fraction of disconnected subgraphs of every block
+     * @param settings settings of the estimation
+     * @return the estimated base 2 logarithm of the fraction of connected spanning subgraphs, which is negative
+     *         infinity if the graph is not connected
+     */
+    private double log2FractionOfConnectedSubgraphsOfReduction(CompactGraph graph, double epsilon,
+                                                               EstimationSettings settings) {
+        GraphReduction reduction = new GraphReducer(graph, false).reduce();
+        if (settings.isVerbose()) {
+            System.out.println("Reduced to " + reduction);
+        }
+        if (reduction.getFactor().signum() == 0) {
+            return Double.NEGATIVE_INFINITY;
         }
 
-        /*// Figure out what the size of the minimum found cut size is
-        int minCutSize = Integer.MAX_VALUE;
-        for (Set<String> cut : cuts) {
-            if (cut.size() < minCutSize) {
-                minCutSize = cut.size();
+        // Every block gets its own streams, split in a fixed order, so seeded estimations remain replayable
+        SplittableRandom cutRandom      = newRandom(settings, CUT_STREAM);
+        SplittableRandom samplingRandom = newRandom(settings, SAMPLING_STREAM);
+        double log2 = log2(reduction.getFactor()) - graph.getEdgeCount();
+        for (CoreGraph block : reduction.getCores()) {
+            SplittableRandom blockCutRandom      = cutRandom.split();
+            SplittableRandom blockSamplingRandom = samplingRandom.split();
+            CompactGraph blockGraph = block.getGraph();
+            BigInteger exact = countReducedExactlyIfNarrow(blockGraph, settings);
+            if (exact != null) {
+                log2 += log2(exact);
+                continue;
             }
+
+            // An estimate within epsilon of a fraction close to 1 can exceed 1, which would make the logarithm NaN
+            double disconnected = Math.min(1, estimateFractionOfDisconnectedSubgraphs(blockGraph, epsilon, settings,
+                    blockCutRandom, blockSamplingRandom));
+            log2 += blockGraph.getEdgeCount() + Math.log1p(-disconnected) / Math.log(2);
         }
 
-        // Only keep the cuts that are within a factor alpha of the minimum cut size
-        Iterator<Set<String>> iterator = cuts.iterator();
+        return log2;
+    }
 
-        int dumpCounter = 0;
-        while (iterator.hasNext()) {
-            Set<String> cut = iterator.next();
+    /**
+     * @param graph    input graph
+     * @param settings settings of the estimation
+     * @return the exact number of connected spanning subgraphs if the settings allow counting those of all cores that
+     *         {@code GraphReducer} leaves of {@code graph} with their frontier width, and {@code null} otherwise
+     */
+    private BigInteger countReducedExactlyIfNarrow(CompactGraph graph, EstimationSettings settings) {
+        if (settings.getMaxExactFrontierWidth() == 0) {
+            return null;
+        }
 
-            if (cut.size() > alpha * minCutSize) {
-                iterator.remove();
-                dumpCounter++;
+        GraphReduction reduction = new GraphReducer(graph).reduce();
+        BigInteger count = reduction.getFactor();
+        for (CoreGraph core : reduction.getCores()) {
+            BigInteger exact = countExactlyIfNarrow(core.getGraph(), core.getPresent(), core.getAbsent(), settings);
+            if (exact == null) {
+                return null;
             }
+            count = count.multiply(exact);
         }
 
-        System.out.println("Dumped " + dumpCounter + " cuts under alpha = " + alpha);*/
-        return cuts;
+        return count;
     }
 
-    private DNFFormula transformSetOfCutsToDNFFormula(Graph graph, Set<Set<String>> cuts) {
-        Set<Clause> clauses = new HashSet<>();
+    private double estimateFractionOfDisconnectedSubgraphs(CompactGraph compactGraph, double epsilon,
+                                                           EstimationSettings settings) {
+        return estimateFractionOfDisconnectedSubgraphs(compactGraph, epsilon, settings,
+                newRandom(settings, CUT_STREAM), newRandom(settings, SAMPLING_STREAM));
+    }
+
+    /**
+     * @param compactGraph   input graph
+     * @param epsilon        relative error
+     * @param settings       settings of the estimation
+     * @param cutRandom      source of randomness of the cut enumeration
+     * @param samplingRandom source of randomness of the sampling
+     * @return the estimated fraction of disconnected spanning subgraphs
+     */
+    private double estimateFractionOfDisconnectedSubgraphs(CompactGraph compactGraph, double epsilon,
+                                                           EstimationSettings settings, SplittableRandom cutRandom,
+                                                           SplittableRandom samplingRandom) {
+        // Every subset of the edges of a graph that is not connected leaves it disconnected. This is checked here, as
+        // the cuts without edges need not have connected sides, so the enumeration may miss them.
+        int minimumCutSize = StoerWagner.minimumCutSize(compactGraph);
+        if (!isConnected(compactGraph, minimumCutSize)) {
+            if (settings.isVerbose()) {
+                System.out.println("The graph is not connected");
+            }
+            return 1;
+        }
 
-        // Each cut represents a clause
-        for (Set<String> cut : cuts) {
-            Set<Literal> literals = new HashSet<>();
+        double alpha = getAlpha(compactGraph.getNodeCount(), epsilon);
 
-            // The edges of a cut represent the literals in the clause
-            for (String edge : cut) {
-                literals.add(new Literal(edge, true));
+        CutTable cuts;
+        if (settings.getCutEnumerationMethod() == CutEnumerationMethod.EXACT) {
+            cuts = enumerateSmallCuts(compactGraph, alpha, minimumCutSize);
+        } else if (settings.getUnseenCutMassThreshold() > 0) {
+            CutEnumeration enumeration = enumerateRandomSmallCutsAdaptively(compactGraph, alpha, minimumCutSize,
+                    settings.getUnseenCutMassThreshold(), cutRandom);
+            if (settings.isVerbose()) {
+                System.out.println(enumeration);
             }
+            cuts = enumeration.getCuts();
+        } else {
+            cuts = enumerateRandomSmallCuts(compactGraph, alpha, minimumCutSize, cutRandom);
+        }
+        if (settings.isVerbose()) {
+            System.out.println(cuts.size() + " cuts found, " + cuts.getRejectedCount() + " larger cuts rejected");
+        }
 
-            clauses.add(new Clause (literals));
+        if (cuts.size() == 0) {
+            return 0;
         }
 
-        Set<Edge> edgeSet = new HashSet<>(graph.getEdgeSet());
+        // Every cut becomes a clause that states that all of its edges have failed
+        ClauseStore clauses = ClauseStore.of(compactGraph, cuts.getCuts()).eliminateSubsumed();
+        if (settings.isVerbose()) {
+            System.out.println(clauses);
+        }
 
-        return new DNFFormula(clauses, edgeSetToIdSet(edgeSet));
+        return estimateFractionOfSatisfyingTruthAssignments(clauses.compile(), epsilon, settings, samplingRandom);
     }
 
-    public double approximateNumberOfSpanningSubgraphs(Graph graph, double epsilon) {
-        int n = graph.getNodeCount();
-        int m = graph.getEdgeCount();
-        double alpha = 2 - Math.log(epsilon) / (2 * Math.log(n));
-        //System.out.println("alpha  = " + alpha);
-        //System.out.println("n^(2a) = " + Math.pow(n, 2 * alpha));
+    /**
+     * @param graph          input graph
+     * @param minimumCutSize size of a minimum cut of {@code graph}
+     * @return whether {@code graph} is connected
+     */
+    static boolean isConnected(CompactGraph graph, int minimumCutSize) {
+        // A graph with fewer than two vertices has no cuts, and a minimum cut size of 0
+        return graph.getNodeCount() < 2 || minimumCutSize > 0;
+    }
 
-        Set<Set<String>> cuts = enumerateRandomSmallCuts(graph, alpha);
-        //System.out.println(cuts.size() + " cuts found");
+    /**
+     * @param n       number of vertices of a graph
+     * @param epsilon relative error
+     * @return the factor of the minimum cut size up to which cuts have to be enumerated for relative error
+     *         {@code epsilon}
+     */
+    private static double getAlpha(int n, double epsilon) {
+        return 2 - Math.log(epsilon) / (2 * Math.log(n));
+    }
+
+    private double estimateFractionOfSatisfyingTruthAssignments(CompiledDNFFormula formula, double epsilon,
+                                                                EstimationSettings settings) {
+        return estimateFractionOfSatisfyingTruthAssignments(formula, epsilon, settings,
+                newRandom(settings, SAMPLING_STREAM));
+    }
 
-        DNFFormula formula = transformSetOfCutsToDNFFormula(graph, cuts);
-        //System.out.println("Formula made");
+    /**
+     * @param formula  formula of which to estimate the fraction of satisfying truth assignments
+     * @param epsilon  relative error
+     * @param settings settings of the estimation
+     * @param random   source of randomness of the sampling
+     * @return the estimated fraction of satisfying truth assignments
+     */
+    private double estimateFractionOfSatisfyingTruthAssignments(CompiledDNFFormula formula, double epsilon,
+                                                                EstimationSettings settings, SplittableRandom random) {
+        KarpLubySampler sampler = new KarpLubySampler(formula, random.split());
 
-        double nrOfSatisfyingTruthAssignments = formula.approximateNumberOfSatisfyingTruthAssignments(epsilon);
+        if (settings.getEstimator() == DNFEstimator.SELF_ADJUSTING_COVERAGE) {
+            return sampler.approximateFractionOfSatisfyingTruthAssignments(epsilon, settings.getDelta(),
+                    settings.getEstimator());
+        }
+
+        Estimate estimate;
+        if (settings.getEstimator() == DNFEstimator.KARP_LUBY && settings.isParallelSampling()) {
+            estimate = sampler.estimateFractionOfSatisfyingTruthAssignmentsInParallel(epsilon, settings.getDelta(),
+                    random.split());
+        } else {
+            estimate = sampler.estimateFractionOfSatisfyingTruthAssignments(epsilon, settings.getDelta(),
+                    settings.getEstimator() == DNFEstimator.KARP_LUBY_STOPPING_RULE);
+        }
+        if (settings.isVerbose()) {
+            System.out.println("Fraction of disconnected subgraphs: " + estimate);
+        }
 
-        return Math.pow(2, m) - nrOfSatisfyingTruthAssignments;
+        return estimate.getValue();
     }
 
-    private Set<String> edgeSetToIdSet(Set<Edge> list) {
-        Set<String> ids = new HashSet<>();
+    /**
+     * Returns a new random generator for one of the uses of randomness in an estimation. If the settings have a seed,
+     * the generator only depends on that seed and on {@code stream}, so estimations with the same seed use the same
+     * random numbers for the same purpose, whatever their epsilon (common random numbers).
+     * @param settings settings of the estimation
+     * @param stream   {@code CUT_STREAM} or {@code SAMPLING_STREAM}
+     * @return a seeded generator, or an unseeded one if the settings have no seed
+     */
+    private static SplittableRandom newRandom(EstimationSettings settings, int stream) {
+        if (!settings.hasSeed()) {
+            return new SplittableRandom();
+        }
 
-        for (Edge edge : list) {
-            ids.add(edge.getId());
+        SplittableRandom root = new SplittableRandom(settings.getSeed());
+        for (int i = 0; i < stream; i++) {
+            root.split();
         }
 
-        return ids;
+        return root.split();
+    }
+
+    /**
+     * @param count number of subsets
+     * @param m     number of edges
+     * @return {@code count / 2^m}, without overflow
+     */
+    private static double fraction(BigInteger count, int m) {
+        // Keep the 63 most significant bits, which is more than a double can hold
+        int shift = Math.max(0, count.bitLength() - 63);
+        return Math.scalb(count.shiftRight(shift).doubleValue(), shift - m);
+    }
+
+    private static double log2(BigInteger count) {
+        int shift = Math.max(0, count.bitLength() - 63);
+        return Math.log(count.shiftRight(shift).doubleValue()) / Math.log(2) + shift;
     }
 }
@@ -0,0 +1,128 @@
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Alias table of Walker, constructed with the method of Vose, for drawing indices {@code 0, ..., k-1} with
+ * probabilities proportional to given weights. Construction takes {@code O(k)} time, and every draw takes constant
+ * time: one uniform index and one uniform double. The table is immutable, and draws do not allocate, so one table can
+ * be shared by any number of threads that each bring their own random generator.
+ */
+public class AliasTable {
+    private final double[] probability;
+    private final int[]    alias;
+    private final double   total;
+
+    /**
+     * @param weights non-negative weights of the indices, of which at least one is positive
+     */
+    public AliasTable(double[] weights) {
+        int k = weights.length;
+        double sum = 0;
+        for (double weight : weights) {
+            if (weight < 0 || Double.isNaN(weight) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("The weights of an alias table should be finite and non-negative. " +
+                        "Got: " + weight + ".");
+            }
+            sum += weight;
+        }
+        if (sum <= 0) {
+            throw new IllegalArgumentException("An alias table needs at least one positive weight.");
+        }
+
+        probability = new double[k];
+        alias       = new int[k];
+        total       = sum;
+
+        // Scale the weights such that they average to 1, and split the indices into those below and above average
+        double[] scaled = new double[k];
+        int[] small = new int[k];
+        int[] large = new int[k];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < k; i++) {
+            scaled[i] = weights[i] * k / sum;
+            if (scaled[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        // Fill the column of every small index up with an index that has weight to spare
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+
+            probability[less] = scaled[less];
+            alias[less]       = more;
+
+            scaled[more] = (scaled[more] + scaled[less]) - 1;
+            if (scaled[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+
+        // What remains is 1 up to rounding errors
+        while (largeCount > 0) {
+            probability[large[--largeCount]] = 1;
+        }
+        while (smallCount > 0) {
+            probability[small[--smallCount]] = 1;
+        }
+    }
+
+    /**
+     * Draws an index with probability proportional to its weight.
+     * @param random source of randomness
+     * @return the index drawn
+     */
+    public int next(SplittableRandom random) {
+        int column = random.nextInt(probability.length);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+
+    /**
+     * Draws an index with probability proportional to its weight.
+     * @param random source of randomness
+     * @return the index drawn
+     */
+    public int next(Random random) {
+        int column = random.nextInt(probability.length);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+
+    /**
+     * Fills {@code out} with independently drawn indices.
+     * @param out    array to fill
+     * @param random source of randomness
+     */
+    public void nextInts(int[] out, SplittableRandom random) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = next(random);
+        }
+    }
+
+    /**
+     * Fills {@code out} with independently drawn indices.
+     * @param out    array to fill
+     * @param random source of randomness
+     */
+    public void nextInts(int[] out, Random random) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = next(random);
+        }
+    }
+
+    public int size() {
+        return probability.length;
+    }
+
+    /**
+     * @return the sum of the weights
+     */
+    public double getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,245 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Reduced ordered binary decision diagrams over the variables {@code 0, ..., n-1}, which are tested in this order:
+ * variable {@code i} is the variable at level {@code i}. Nodes are numbered, with 0 and 1 the terminal nodes for
+ * false and true. Every node is created through a unique table, so two nodes represent the same function if and only
+ * if they have the same number.
+ *
+ * The results of {@code or} are cached in a computed table. It is direct mapped: a new result overwrites whatever
+ * was stored in its slot, so a cache miss only costs recomputation. Since a disjunction that misses the cache recurses
+ * into both children again, a cache that is much smaller than the BDDs makes {@code or} exponentially slower. The
+ * computed table therefore grows along with the number of nodes, up to a given maximum size.
+ */
+public class BDD {
+    public static final int FALSE = 0;
+    public static final int TRUE  = 1;
+
+    private final int variableCount;
+
+    private int[] level = new int[1024];
+    private int[] low   = new int[1024];
+    private int[] high  = new int[1024];
+    private int   nodeCount;
+
+    // Unique table: open addressing with linear probing, storing node numbers (0 means empty)
+    private int[] unique = new int[2048];
+
+    private long[] cacheKeys;
+    private int[]  cacheResults;
+    private final int maxCacheSize;
+
+    /**
+     * @param variableCount number of variables
+     * @param maxCacheSize  maximum number of entries of the computed table, rounded up to a power of two
+     */
+    public BDD(int variableCount, int maxCacheSize) {
+        if (maxCacheSize < 1) {
+            throw new IllegalArgumentException("The computed table of a BDD needs at least one entry. Got: " +
+                    maxCacheSize + ".");
+        }
+
+        this.variableCount = variableCount;
+
+        // The terminals are at the level below all variables
+        level[FALSE] = variableCount;
+        level[TRUE]  = variableCount;
+        nodeCount = 2;
+
+        this.maxCacheSize = Integer.highestOneBit(Math.max(1, maxCacheSize - 1)) << 1;
+        cacheKeys    = new long[Math.min(this.maxCacheSize, 1024)];
+        cacheResults = new int[cacheKeys.length];
+        Arrays.fill(cacheKeys, -1);
+    }
+
+    /**
+     * Returns the node that tests variable {@code variable}, with the given children.
+     * @param variable variable (level) of the node
+     * @param lowNode  child if the variable is false
+     * @param highNode child if the variable is true
+     * @return the unique node with this variable and these children, or {@code lowNode} if the children are equal
+     */
+    public int makeNode(int variable, int lowNode, int highNode) {
+        if (lowNode == highNode) {
+            return lowNode;
+        }
+        if (variable >= level[lowNode] || variable >= level[highNode]) {
+            throw new IllegalArgumentException("The children of a BDD node should test later variables than " +
+                    variable + ".");
+        }
+
+        int mask = unique.length - 1;
+        int i = hash(variable, lowNode, highNode) & mask;
+        while (unique[i] != 0) {
+            int node = unique[i];
+            if (level[node] == variable && low[node] == lowNode && high[node] == highNode) {
+                return node;
+            }
+            i = (i + 1) & mask;
+        }
+
+        if (nodeCount == level.length) {
+            level = Arrays.copyOf(level, 2 * nodeCount);
+            low   = Arrays.copyOf(low, 2 * nodeCount);
+            high  = Arrays.copyOf(high, 2 * nodeCount);
+        }
+        int node = nodeCount++;
+        level[node] = variable;
+        low[node]   = lowNode;
+        high[node]  = highNode;
+        unique[i]   = node;
+
+        // Keep the load factor of the unique table at most 1/2, and the computed table as large as the unique table
+        if (2 * nodeCount > unique.length) {
+            resizeUniqueTable();
+            if (cacheKeys.length < Math.min(unique.length, maxCacheSize)) {
+                resizeCache(Math.min(unique.length, maxCacheSize));
+            }
+        }
+
+        return node;
+    }
+
+    private void resizeUniqueTable() {
+        unique = new int[2 * unique.length];
+        int mask = unique.length - 1;
+        for (int node = 2; node < nodeCount; node++) {
+            int i = hash(level[node], low[node], high[node]) & mask;
+            while (unique[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            unique[i] = node;
+        }
+    }
+
+    private void resizeCache(int capacity) {
+        long[] oldKeys    = cacheKeys;
+        int[]  oldResults = cacheResults;
+        cacheKeys    = new long[capacity];
+        cacheResults = new int[capacity];
+        Arrays.fill(cacheKeys, -1);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != -1) {
+                int slot = cacheSlot(oldKeys[i]);
+                cacheKeys[slot]    = oldKeys[i];
+                cacheResults[slot] = oldResults[i];
+            }
+        }
+    }
+
+    private int cacheSlot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & (cacheKeys.length - 1);
+    }
+
+    private static int hash(int variable, int lowNode, int highNode) {
+        long h = variable * 0x9E3779B97F4A7C15L + lowNode * 0xBF58476D1CE4E5B9L + highNode * 0x94D049BB133111EBL;
+        return (int) (h ^ (h >>> 29));
+    }
+
+    /**
+     * Returns the conjunction of the given literals.
+     * @param variables variables of the literals, all different
+     * @param values    required truth values of the literals
+     * @return the node of the conjunction
+     */
+    public int cube(int[] variables, boolean[] values) {
+        Integer[] order = new Integer[variables.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (i, j) -> Integer.compare(variables[j], variables[i]));
+
+        // Build the chain from the last variable up
+        int node = TRUE;
+        for (int i : order) {
+            node = values[i] ? makeNode(variables[i], FALSE, node) : makeNode(variables[i], node, FALSE);
+        }
+
+        return node;
+    }
+
+    /**
+     * @param a node of the first function
+     * @param b node of the second function
+     * @return the node of the disjunction of both functions
+     */
+    public int or(int a, int b) {
+        if (a == TRUE || b == TRUE) {
+            return TRUE;
+        }
+        if (a == FALSE || a == b) {
+            return b;
+        }
+        if (b == FALSE) {
+            return a;
+        }
+
+        // Disjunction is commutative, so only cache one of both orders
+        if (a > b) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+
+        long key = ((long) a << 32) | b;
+        int slot = cacheSlot(key);
+        if (cacheKeys[slot] == key) {
+            return cacheResults[slot];
+        }
+
+        int variable = Math.min(level[a], level[b]);
+        int aLow  = level[a] == variable ? low[a]  : a;
+        int aHigh = level[a] == variable ? high[a] : a;
+        int bLow  = level[b] == variable ? low[b]  : b;
+        int bHigh = level[b] == variable ? high[b] : b;
+        int result = makeNode(variable, or(aLow, bLow), or(aHigh, bHigh));
+
+        // The table may have grown in the meantime
+        slot = cacheSlot(key);
+        cacheKeys[slot]    = key;
+        cacheResults[slot] = result;
+
+        return result;
+    }
+
+    /**
+     * Counts the truth assignments to all variables that satisfy the function of a node. This takes time linear in
+     * the number of nodes below it.
+     * @param root node of the function
+     * @return the number of satisfying truth assignments
+     */
+    public BigInteger countModels(int root) {
+        BigInteger[] counts = new BigInteger[nodeCount];
+        counts[FALSE] = BigInteger.ZERO;
+        counts[TRUE]  = BigInteger.ONE;
+
+        // The variables above the root can take any value
+        return countModels(root, counts).shiftLeft(level[root]);
+    }
+
+    /**
+     * @return the number of assignments to the variables from the level of {@code node} on, that satisfy its function
+     */
+    private BigInteger countModels(int node, BigInteger[] counts) {
+        if (counts[node] == null) {
+            BigInteger lowCount  = countModels(low[node], counts).shiftLeft(level[low[node]] - level[node] - 1);
+            BigInteger highCount = countModels(high[node], counts).shiftLeft(level[high[node]] - level[node] - 1);
+            counts[node] = lowCount.add(highCount);
+        }
+
+        return counts[node];
+    }
+
+    public int getVariableCount() {
+        return variableCount;
+    }
+
+    /**
+     * @return the number of nodes created so far, including the terminals
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+}
@@ -0,0 +1,211 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Exact counter of the satisfying truth assignments of a DNF formula. The formula is compiled into a reduced ordered
+ * BDD, by building a BDD for every clause and combining these with a balanced tree of disjunctions, such that the
+ * intermediate BDDs stay small for as long as possible. The models are then counted in time linear in the size of the
+ * BDD. Whether this is feasible depends on the size of the BDD, which depends strongly on the variable order.
+ *
+ * The variable order is computed with the FORCE heuristic of Aloul, Markov and Sakallah: every clause pulls its
+ * variables towards their center of gravity, until the total span of the clauses stops decreasing. For formulas
+ * built from the cuts of a graph, this places the edges of the same part of the graph close together.
+ */
+public class BDDCounter {
+    private static final int DEFAULT_MAX_CACHE_SIZE = 1 << 22;
+    private static final int MAX_FORCE_ITERATIONS = 50;
+
+    private final CompiledDNFFormula formula;
+    private final int maxCacheSize;
+    private BDD bdd;
+    private int root;
+
+    /**
+     * @param formula formula to count the satisfying truth assignments of
+     */
+    public BDDCounter(CompiledDNFFormula formula) {
+        this(formula, DEFAULT_MAX_CACHE_SIZE);
+    }
+
+    /**
+     * @param formula      formula to count the satisfying truth assignments of
+     * @param maxCacheSize maximum number of entries of the computed table of the BDD
+     */
+    public BDDCounter(CompiledDNFFormula formula, int maxCacheSize) {
+        this.formula      = formula;
+        this.maxCacheSize = maxCacheSize;
+    }
+
+    /**
+     * Counts the satisfying truth assignments of the formula. The BDD is built on the first call.
+     * @return the number of satisfying truth assignments
+     */
+    public BigInteger count() {
+        if (bdd == null) {
+            build();
+        }
+
+        return bdd.countModels(root);
+    }
+
+    /**
+     * @return the number of nodes created while building the BDD, or 0 if it has not been built yet
+     */
+    public int getNodeCount() {
+        return bdd == null ? 0 : bdd.getNodeCount();
+    }
+
+    private void build() {
+        int n = formula.getVariableCount();
+        int k = formula.getClauseCount();
+        int[] levels = computeVariableOrder();
+        bdd = new BDD(n, maxCacheSize);
+
+        int[] nodes = new int[k];
+        int size = 0;
+        for (int c = 0; c < k; c++) {
+            int[] literals = formula.getLiterals(c);
+            int[] variables = new int[literals.length];
+            boolean[] values = new boolean[literals.length];
+            boolean contradictory = false;
+            for (int l = 0; l < literals.length; l++) {
+                variables[l] = levels[literals[l] >> 1];
+                values[l]    = (literals[l] & 1) != 0;
+                // Literals are sorted, so the two literals of the same variable are adjacent
+                contradictory |= l > 0 && literals[l] >> 1 == literals[l - 1] >> 1;
+            }
+
+            if (!contradictory) {
+                nodes[size++] = bdd.cube(variables, values);
+            }
+        }
+
+        // Combine the clauses pairwise, level by level
+        while (size > 1) {
+            int half = 0;
+            for (int i = 0; i + 1 < size; i += 2) {
+                nodes[half++] = bdd.or(nodes[i], nodes[i + 1]);
+            }
+            if (size % 2 == 1) {
+                nodes[half++] = nodes[size - 1];
+            }
+            size = half;
+        }
+
+        root = size == 0 ? BDD.FALSE : nodes[0];
+    }
+
+    /**
+     * Computes a variable order with the FORCE heuristic. Variables that do not occur in any clause are put last.
+     * @return for every variable its level in the BDD
+     */
+    private int[] computeVariableOrder() {
+        int n = formula.getVariableCount();
+        int k = formula.getClauseCount();
+
+        int[][] clauses = new int[k][];
+        for (int c = 0; c < k; c++) {
+            clauses[c] = formula.getLiterals(c);
+            for (int l = 0; l < clauses[c].length; l++) {
+                clauses[c][l] >>= 1;
+            }
+        }
+
+        // Start from the order of first occurrence
+        double[] position = new double[n];
+        Arrays.fill(position, Double.MAX_VALUE);
+        int next = 0;
+        for (int[] clause : clauses) {
+            for (int v : clause) {
+                if (position[v] == Double.MAX_VALUE) {
+                    position[v] = next++;
+                }
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            if (position[v] == Double.MAX_VALUE) {
+                position[v] = next++;
+            }
+        }
+
+        int[] best = ranks(position);
+        long bestSpan = span(clauses, best);
+        for (int iteration = 0; iteration < MAX_FORCE_ITERATIONS; iteration++) {
+            double[] sum   = new double[n];
+            int[]    count = new int[n];
+            for (int[] clause : clauses) {
+                double center = 0;
+                for (int v : clause) {
+                    center += position[v];
+                }
+                center /= clause.length;
+
+                for (int v : clause) {
+                    sum[v] += center;
+                    count[v]++;
+                }
+            }
+
+            for (int v = 0; v < n; v++) {
+                if (count[v] > 0) {
+                    position[v] = sum[v] / count[v];
+                }
+            }
+
+            int[] ranks = ranks(position);
+            long span = span(clauses, ranks);
+            if (span >= bestSpan) {
+                break;
+            }
+            best = ranks;
+            bestSpan = span;
+            for (int v = 0; v < n; v++) {
+                position[v] = ranks[v];
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * @param position position of every variable
+     * @return for every variable its rank when the variables are sorted on position, ties broken by variable number
+     */
+    private int[] ranks(double[] position) {
+        int n = position.length;
+        Integer[] sorted = new Integer[n];
+        for (int v = 0; v < n; v++) {
+            sorted[v] = v;
+        }
+        Arrays.sort(sorted, (u, v) -> Double.compare(position[u], position[v]));
+
+        int[] ranks = new int[n];
+        for (int i = 0; i < n; i++) {
+            ranks[sorted[i]] = i;
+        }
+
+        return ranks;
+    }
+
+    /**
+     * @return the total over all clauses of the distance between the first and the last level of their variables
+     */
+    private long span(int[][] clauses, int[] levels) {
+        long span = 0;
+        for (int[] clause : clauses) {
+            if (clause.length == 0) {
+                continue;
+            }
+
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (int v : clause) {
+                min = Math.min(min, levels[v]);
+                max = Math.max(max, levels[v]);
+            }
+            span += max - min;
+        }
+
+        return span;
+    }
+}
@@ -15,4 +15,20 @@ public class Clause {
     public int getNrOfLiterals() {
         return literals.size();
     }
+
+    /**
+     * Two clauses are equal if they have the same set of literals.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Clause)) return false;
+
+        return literals.equals(((Clause) o).literals);
+    }
+
+    @Override
+    public int hashCode() {
+        return literals.hashCode();
+    }
 }
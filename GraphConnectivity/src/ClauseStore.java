@@ -0,0 +1,287 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Store of the distinct clauses of a DNF formula, in canonical form. The variables are interned to the indices
+ * {@code 0, ..., n-1}, and every clause is a sorted array of literals without repetitions, numbered as in
+ * {@code CompiledDNFFormula}: {@code 2v + 1} for "variable {@code v} is true" and {@code 2v} for "variable {@code v} is
+ * false". Every clause has a 64-bit hash that is computed once, so equal clauses are only stored once, and clauses
+ * that contain a variable and its negation, which no truth assignment satisfies, are not stored at all.
+ *
+ * A clause whose literals include all literals of another clause is subsumed by that clause: every truth assignment
+ * that satisfies it also satisfies the other clause, so removing it does not change the formula. Since the number of
+ * samples of the Karp-Luby estimator grows quadratically with the number of clauses, {@code eliminateSubsumed()}
+ * should be run before a formula is sampled.
+ */
+public class ClauseStore {
+    private final String[] variables;
+    private List<CanonicalClause> clauses = new ArrayList<>();
+    private final Set<CanonicalClause> index = new HashSet<>();
+    private int duplicates    = 0;
+    private int contradictory = 0;
+    private int subsumed      = 0;
+
+    /**
+     * @param variables names of the variables, in the order of their indices
+     */
+    public ClauseStore(String[] variables) {
+        this.variables = variables;
+    }
+
+    /**
+     * Creates a store of the clauses of a formula given as a set of clauses.
+     * @param clauses   clauses of the formula
+     * @param variables variables of the formula, which include the variables of all clauses
+     * @return the store, in which the variables are numbered in the iteration order of {@code variables}
+     */
+    public static ClauseStore of(Set<Clause> clauses, Set<String> variables) {
+        String[] names = variables.toArray(new String[0]);
+        Map<String, Integer> variableIndex = new HashMap<>();
+        for (String name : names) {
+            variableIndex.put(name, variableIndex.size());
+        }
+
+        ClauseStore store = new ClauseStore(names);
+        for (Clause clause : clauses) {
+            int[] literals = new int[clause.getNrOfLiterals()];
+            int l = 0;
+            for (Literal literal : clause.getLiterals()) {
+                Integer variable = variableIndex.get(literal.getId());
+                if (variable == null) {
+                    throw new IllegalArgumentException("Clause contains variable " + literal.getId() + ", which is " +
+                            "not a variable of the formula.");
+                }
+                literals[l++] = 2 * variable + (literal.getRequiredTruthAssignment() ? 1 : 0);
+            }
+            store.add(literals);
+        }
+
+        return store;
+    }
+
+    /**
+     * Creates a store of the clauses that state that all edges of a cut are in the graph, in which variable {@code i}
+     * is edge {@code i} of {@code graph}.
+     * @param graph graph that the cuts were found in
+     * @param cuts  cuts of {@code graph}, which become the clauses in the same order
+     * @return the store
+     */
+    public static ClauseStore of(CompactGraph graph, List<Cut> cuts) {
+        ClauseStore store = new ClauseStore(graph.getEdgeIds());
+        for (Cut cut : cuts) {
+            int[] literals = new int[cut.size()];
+            for (int i = 0; i < cut.size(); i++) {
+                literals[i] = 2 * cut.getEdges()[i] + 1;
+            }
+            store.add(literals);
+        }
+
+        return store;
+    }
+
+    /**
+     * Adds a clause, unless an equal clause is already in the store or the clause can not be satisfied.
+     * @param literals literals of the clause, in any order and possibly with repetitions. The array is not modified.
+     * @return whether the clause was added
+     */
+    public boolean add(int[] literals) {
+        int[] canonical = canonicalize(literals);
+        if (canonical == null) {
+            contradictory++;
+            return false;
+        }
+
+        CanonicalClause clause = new CanonicalClause(canonical);
+        if (!index.add(clause)) {
+            duplicates++;
+            return false;
+        }
+        clauses.add(clause);
+
+        return true;
+    }
+
+    /**
+     * @param literals literals of a clause
+     * @return the sorted literals without repetitions, or {@code null} if they contain a variable and its negation
+     */
+    private int[] canonicalize(int[] literals) {
+        int[] sorted = literals.clone();
+        Arrays.sort(sorted);
+
+        int size = 0;
+        for (int literal : sorted) {
+            if (literal < 0 || literal >= 2 * variables.length) {
+                throw new IllegalArgumentException("Literal " + literal + " does not belong to a variable of a " +
+                        "formula with " + variables.length + " variables.");
+            }
+            if (size > 0 && sorted[size - 1] == literal) {
+                continue;
+            }
+            // The literals 2v and 2v + 1 of the same variable end up next to each other
+            if (size > 0 && sorted[size - 1] >> 1 == literal >> 1) {
+                return null;
+            }
+            sorted[size++] = literal;
+        }
+
+        return size == sorted.length ? sorted : Arrays.copyOf(sorted, size);
+    }
+
+    /**
+     * Removes every clause that is subsumed by another clause, and sorts the remaining clauses by size. Clauses of
+     * equal size keep their order.
+     *
+     * The clauses are processed from small to large. A clause can only be subsumed by a smaller clause, which has
+     * then already been kept, so it suffices to compare it with the clauses kept so far. These are found through an
+     * index from every literal to the kept clauses that contain it: the clause is subsumed if, for one of these
+     * clauses, all its literals are among the literals of the clause, that is: if it is reached through as many
+     * literals of the clause as it has literals.
+     * @return this store
+     */
+    public ClauseStore eliminateSubsumed() {
+        List<CanonicalClause> sorted = new ArrayList<>(clauses);
+        sorted.sort(Comparator.comparingInt(CanonicalClause::size));
+
+        List<List<Integer>> containing = new ArrayList<>();
+        for (int l = 0; l < 2 * variables.length; l++) {
+            containing.add(new ArrayList<>());
+        }
+
+        List<CanonicalClause> kept = new ArrayList<>();
+        // hits[k] counts the literals of the current clause in kept clause k; touched lists the k with hits[k] > 0
+        int[] hits    = new int[sorted.size()];
+        int[] touched = new int[sorted.size()];
+        for (CanonicalClause clause : sorted) {
+            boolean isSubsumed = false;
+            int touchedCount = 0;
+            for (int literal : clause.literals) {
+                for (int k : containing.get(literal)) {
+                    if (hits[k]++ == 0) {
+                        touched[touchedCount++] = k;
+                    }
+                    if (hits[k] == kept.get(k).size()) {
+                        isSubsumed = true;
+                    }
+                }
+            }
+            for (int i = 0; i < touchedCount; i++) {
+                hits[touched[i]] = 0;
+            }
+
+            if (isSubsumed) {
+                index.remove(clause);
+                subsumed++;
+            } else {
+                for (int literal : clause.literals) {
+                    containing.get(literal).add(kept.size());
+                }
+                kept.add(clause);
+            }
+        }
+
+        // The empty clause subsumes every other clause
+        if (!kept.isEmpty() && kept.get(0).size() == 0) {
+            for (int k = 1; k < kept.size(); k++) {
+                index.remove(kept.get(k));
+                subsumed++;
+            }
+            kept = new ArrayList<>(kept.subList(0, 1));
+        }
+
+        clauses = kept;
+        return this;
+    }
+
+    /**
+     * @return the compiled formula of the clauses in this store, in their current order
+     */
+    public CompiledDNFFormula compile() {
+        int[][] literals = new int[clauses.size()][];
+        for (int c = 0; c < clauses.size(); c++) {
+            literals[c] = clauses.get(c).literals;
+        }
+
+        return CompiledDNFFormula.of(variables, literals);
+    }
+
+    /**
+     * @param clause index of a clause
+     * @return the sorted literals of the clause. The array should not be modified.
+     */
+    public int[] getLiterals(int clause) {
+        return clauses.get(clause).literals;
+    }
+
+    public int size() {
+        return clauses.size();
+    }
+
+    public String[] getVariables() {
+        return variables;
+    }
+
+    /**
+     * @return the number of clauses that were not added because an equal clause was already in the store
+     */
+    public int getDuplicateCount() {
+        return duplicates;
+    }
+
+    /**
+     * @return the number of clauses that were not added because they contain a variable and its negation
+     */
+    public int getContradictoryCount() {
+        return contradictory;
+    }
+
+    /**
+     * @return the number of clauses removed by {@code eliminateSubsumed()}
+     */
+    public int getSubsumedCount() {
+        return subsumed;
+    }
+
+    @Override
+    public String toString() {
+        return clauses.size() + " clauses (" + duplicates + " duplicates, " + contradictory + " contradictory and " +
+                subsumed + " subsumed clauses removed)";
+    }
+
+    /**
+     * A clause in canonical form, with its hash computed once.
+     */
+    private static final class CanonicalClause {
+        private final int[] literals;
+        private final long  hash;
+
+        private CanonicalClause(int[] literals) {
+            this.literals = literals;
+            this.hash     = Cut.hash(literals);
+        }
+
+        private int size() {
+            return literals.length;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CanonicalClause)) return false;
+
+            CanonicalClause other = (CanonicalClause) o;
+            return hash == other.hash && Arrays.equals(literals, other.literals);
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
+}
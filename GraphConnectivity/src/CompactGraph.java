@@ -0,0 +1,81 @@
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+
+/**
+ * Compact representation of a multigraph: the vertices are {@code 0, ..., n-1} and edge {@code i} connects the
+ * vertices {@code getEndpoint0(i)} and {@code getEndpoint1(i)}. The ids of the vertices and edges of the GraphStream
+ * graph that it was created from are kept, such that results can be translated back.
+ */
+public class CompactGraph {
+    private final int      nodeCount;
+    private final int[]    endpoint0;
+    private final int[]    endpoint1;
+    private final String[] nodeIds;
+    private final String[] edgeIds;
+
+    /**
+     * Creates the compact representation of a GraphStream graph. Vertex and edge numbers are equal to their indices
+     * in {@code graph}.
+     * @param graph input graph
+     */
+    public CompactGraph(Graph graph) {
+        int m = graph.getEdgeCount();
+        nodeCount = graph.getNodeCount();
+        endpoint0 = new int[m];
+        endpoint1 = new int[m];
+        nodeIds   = new String[nodeCount];
+        edgeIds   = new String[m];
+
+        for (int v = 0; v < nodeCount; v++) {
+            nodeIds[v] = graph.getNode(v).getId();
+        }
+
+        for (int i = 0; i < m; i++) {
+            Edge edge = graph.getEdge(i);
+            endpoint0[i] = edge.getNode0().getIndex();
+            endpoint1[i] = edge.getNode1().getIndex();
+            edgeIds[i]   = edge.getId();
+        }
+    }
+
+    public CompactGraph(int nodeCount, int[] endpoint0, int[] endpoint1, String[] nodeIds, String[] edgeIds) {
+        if (endpoint0.length != endpoint1.length) {
+            throw new IllegalArgumentException("Every edge should have two endpoints. Got " + endpoint0.length +
+                    " first endpoints and " + endpoint1.length + " second endpoints.");
+        }
+
+        this.nodeCount = nodeCount;
+        this.endpoint0 = endpoint0;
+        this.endpoint1 = endpoint1;
+        this.nodeIds   = nodeIds;
+        this.edgeIds   = edgeIds;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getEdgeCount() {
+        return endpoint0.length;
+    }
+
+    public int getEndpoint0(int edge) {
+        return endpoint0[edge];
+    }
+
+    public int getEndpoint1(int edge) {
+        return endpoint1[edge];
+    }
+
+    public String getNodeId(int node) {
+        return nodeIds[node];
+    }
+
+    public String getEdgeId(int edge) {
+        return edgeIds[edge];
+    }
+
+    public String[] getEdgeIds() {
+        return edgeIds;
+    }
+}
@@ -0,0 +1,360 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Bit-packed form of a DNF formula. The variables are interned to the indices {@code 0, ..., n-1}, a truth assignment
+ * is a {@code long[]} in which bit {@code v % 64} of word {@code v / 64} is the value of variable {@code v}, and every
+ * clause is a pair of masks in the same format: the variables that should be true and those that should be false.
+ * Checking whether an assignment satisfies a clause takes a few bitwise operations per word.
+ *
+ * To count the clauses that an assignment satisfies without checking all of them, every clause watches one of its
+ * literals, and the clauses are indexed by the literal they watch. A clause can only be satisfied if its watched
+ * literal is, so only the clauses watching a satisfied literal have to be checked. Every clause watches the literal
+ * that the fewest clauses before it watch, which spreads the clauses evenly over the variables. An empty clause is
+ * satisfied by every assignment, and watches the extra literal {@code 2n}, which every assignment satisfies.
+ */
+public class CompiledDNFFormula {
+    private final String[] variables;
+    private final int      words;
+    private final int      clauseCount;
+    // The masks of clause c are words c * words, ..., (c + 1) * words - 1
+    private final long[]   positive;
+    private final long[]   negative;
+    private final int[]    clauseSize;
+
+    // The clauses watching literal l are watchers[watchStart[l]], ..., watchers[watchStart[l + 1] - 1], where the
+    // literal that variable v is true has number 2v + 1 and the literal that it is false has number 2v. The empty
+    // clauses watch literal 2n
+    private final int[]    watchStart;
+    private final int[]    watchers;
+
+    private CompiledDNFFormula(String[] variables, int[][] clauseVariables, boolean[][] clauseValues) {
+        int n = variables.length;
+        this.variables   = variables;
+        this.words       = Math.max(1, (n + 63) >>> 6);
+        this.clauseCount = clauseVariables.length;
+        this.positive    = new long[clauseCount * words];
+        this.negative    = new long[clauseCount * words];
+        this.clauseSize  = new int[clauseCount];
+
+        int[] watched = new int[clauseCount];
+        int[] watchCount = new int[2 * n + 1];
+        for (int c = 0; c < clauseCount; c++) {
+            int best = clauseVariables[c].length == 0 ? 2 * n : -1;
+            for (int l = 0; l < clauseVariables[c].length; l++) {
+                int v = clauseVariables[c][l];
+                int literal = 2 * v + (clauseValues[c][l] ? 1 : 0);
+                long[] masks = clauseValues[c][l] ? positive : negative;
+                masks[c * words + (v >>> 6)] |= 1L << v;
+
+                if (best == -1 || watchCount[literal] < watchCount[best]) {
+                    best = literal;
+                }
+            }
+            watched[c] = best;
+            watchCount[best]++;
+
+            for (int w = 0; w < words; w++) {
+                clauseSize[c] += Long.bitCount(positive[c * words + w]) + Long.bitCount(negative[c * words + w]);
+            }
+        }
+
+        watchStart = new int[2 * n + 2];
+        for (int l = 0; l <= 2 * n; l++) {
+            watchStart[l + 1] = watchStart[l] + watchCount[l];
+        }
+        watchers = new int[clauseCount];
+        int[] fill = Arrays.copyOf(watchStart, 2 * n + 1);
+        for (int c = 0; c < clauseCount; c++) {
+            watchers[fill[watched[c]]++] = c;
+        }
+    }
+
+    private CompiledDNFFormula(String[] variables, int words, int clauseCount, long[] positive, long[] negative,
+                               int[] clauseSize, int[] watchStart, int[] watchers) {
+        this.variables   = variables;
+        this.words       = words;
+        this.clauseCount = clauseCount;
+        this.positive    = positive;
+        this.negative    = negative;
+        this.clauseSize  = clauseSize;
+        this.watchStart  = watchStart;
+        this.watchers    = watchers;
+    }
+
+    /**
+     * Compiles a formula given as a set of clauses.
+     * @param clauses   clauses of the formula
+     * @param variables variables of the formula, which include the variables of all clauses
+     * @return the compiled formula, in which the variables are numbered in the iteration order of {@code variables}
+     */
+    public static CompiledDNFFormula of(Set<Clause> clauses, Set<String> variables) {
+        String[] names = variables.toArray(new String[0]);
+        Map<String, Integer> index = new HashMap<>();
+        for (String name : names) {
+            index.put(name, index.size());
+        }
+
+        int[][]     clauseVariables = new int[clauses.size()][];
+        boolean[][] clauseValues    = new boolean[clauses.size()][];
+        int c = 0;
+        for (Clause clause : clauses) {
+            clauseVariables[c] = new int[clause.getNrOfLiterals()];
+            clauseValues[c]    = new boolean[clause.getNrOfLiterals()];
+            int l = 0;
+            for (Literal literal : clause.getLiterals()) {
+                Integer variable = index.get(literal.getId());
+                if (variable == null) {
+                    throw new IllegalArgumentException("Clause contains variable " + literal.getId() + ", which is " +
+                            "not a variable of the formula.");
+                }
+                clauseVariables[c][l] = variable;
+                clauseValues[c][l]    = literal.getRequiredTruthAssignment();
+                l++;
+            }
+            c++;
+        }
+
+        return new CompiledDNFFormula(names, clauseVariables, clauseValues);
+    }
+
+    /**
+     * Compiles a formula given by the literals of its clauses.
+     * @param variables names of the variables, in the order of their indices
+     * @param literals  for every clause, its literals without repetitions, numbered {@code 2v + 1} for "variable
+     *                  {@code v} is true" and {@code 2v} for "variable {@code v} is false"
+     * @return the compiled formula
+     */
+    public static CompiledDNFFormula of(String[] variables, int[][] literals) {
+        int[][]     clauseVariables = new int[literals.length][];
+        boolean[][] clauseValues    = new boolean[literals.length][];
+        for (int c = 0; c < literals.length; c++) {
+            clauseVariables[c] = new int[literals[c].length];
+            clauseValues[c]    = new boolean[literals[c].length];
+            for (int l = 0; l < literals[c].length; l++) {
+                clauseVariables[c][l] = literals[c][l] >> 1;
+                clauseValues[c][l]    = (literals[c][l] & 1) == 1;
+            }
+        }
+
+        return new CompiledDNFFormula(variables, clauseVariables, clauseValues);
+    }
+
+    /**
+     * Compiles the formula that states that all edges of at least one of the given cuts are in the graph, in which
+     * variable {@code i} is edge {@code i} of {@code graph}.
+     * @param graph graph that the cuts were found in
+     * @param cuts  cuts of {@code graph}, which become the clauses
+     * @return the compiled formula
+     */
+    public static CompiledDNFFormula of(CompactGraph graph, CutTable cuts) {
+        return of(graph, cuts.getCuts());
+    }
+
+    /**
+     * Compiles the formula that states that all edges of at least one of the given cuts are in the graph, in which
+     * variable {@code i} is edge {@code i} of {@code graph}.
+     * @param graph graph that the cuts were found in
+     * @param cuts  cuts of {@code graph}, which become the clauses in the same order
+     * @return the compiled formula
+     */
+    public static CompiledDNFFormula of(CompactGraph graph, List<Cut> cuts) {
+        int[][]     clauseVariables = new int[cuts.size()][];
+        boolean[][] clauseValues    = new boolean[cuts.size()][];
+        for (int c = 0; c < cuts.size(); c++) {
+            clauseVariables[c] = cuts.get(c).getEdges();
+            clauseValues[c]    = new boolean[clauseVariables[c].length];
+            Arrays.fill(clauseValues[c], true);
+        }
+
+        return new CompiledDNFFormula(graph.getEdgeIds(), clauseVariables, clauseValues);
+    }
+
+    /**
+     * Returns the formula that consists of the first {@code count} clauses of this formula. The masks are shared with
+     * this formula and only the watch index is rebuilt, which takes time linear in the number of clauses and
+     * variables. As every clause watches a literal chosen from the clauses before it only, the result is the same as
+     * compiling the first {@code count} clauses directly.
+     * @param count number of clauses to keep
+     * @return the formula of the first {@code count} clauses
+     */
+    public CompiledDNFFormula prefix(int count) {
+        if (count < 0 || count > clauseCount) {
+            throw new IllegalArgumentException("A formula with " + clauseCount + " clauses has no prefix of " + count +
+                    " clauses.");
+        }
+        if (count == clauseCount) {
+            return this;
+        }
+
+        // Keep the watchers of every literal in the same order, dropping the clauses beyond the prefix
+        int[] prefixStart    = new int[watchStart.length];
+        int[] prefixWatchers = new int[count];
+        int size = 0;
+        for (int l = 0; l + 1 < watchStart.length; l++) {
+            prefixStart[l] = size;
+            for (int i = watchStart[l]; i < watchStart[l + 1]; i++) {
+                if (watchers[i] < count) {
+                    prefixWatchers[size++] = watchers[i];
+                }
+            }
+        }
+        prefixStart[watchStart.length - 1] = size;
+
+        return new CompiledDNFFormula(variables, words, count, positive, negative, clauseSize, prefixStart,
+                prefixWatchers);
+    }
+
+    /**
+     * @return a new all-false truth assignment for this formula
+     */
+    public long[] newAssignment() {
+        return new long[words];
+    }
+
+    /**
+     * Overwrites {@code assignment} with a uniformly random truth assignment.
+     * @param assignment truth assignment to overwrite
+     * @param random     source of randomness
+     */
+    public void randomize(long[] assignment, SplittableRandom random) {
+        for (int w = 0; w < words; w++) {
+            assignment[w] = random.nextLong();
+        }
+
+        // Keep the bits beyond the last variable zero
+        int rest = variables.length & 63;
+        if (rest != 0) {
+            assignment[words - 1] &= (1L << rest) - 1;
+        }
+    }
+
+    /**
+     * Changes the truth values of the variables in clause {@code clause} such that the assignment satisfies it.
+     * @param clause     index of a clause
+     * @param assignment truth assignment to change
+     */
+    public void satisfy(int clause, long[] assignment) {
+        int offset = clause * words;
+        for (int w = 0; w < words; w++) {
+            assignment[w] = (assignment[w] | positive[offset + w]) & ~negative[offset + w];
+        }
+    }
+
+    /**
+     * @param clause     index of a clause
+     * @param assignment truth assignment
+     * @return whether {@code assignment} satisfies clause {@code clause}
+     */
+    public boolean isSatisfied(int clause, long[] assignment) {
+        int offset = clause * words;
+        for (int w = 0; w < words; w++) {
+            long a = assignment[w];
+            if ((a & positive[offset + w]) != positive[offset + w] || (a & negative[offset + w]) != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Counts the clauses that {@code assignment} satisfies, checking only the clauses that watch a satisfied literal.
+     * @param assignment truth assignment
+     * @return the number of satisfied clauses
+     */
+    public int countSatisfiedClauses(long[] assignment) {
+        int n = variables.length;
+        // The empty clauses are satisfied by every assignment
+        int count = watchStart[2 * n + 1] - watchStart[2 * n];
+        for (int w = 0; w < words; w++) {
+            int base = w << 6;
+            long valid = base + 64 <= n ? -1L : (1L << (n - base)) - 1;
+
+            // Literals "v is true" for the true variables, and "v is false" for the false ones
+            for (long bits = assignment[w] & valid; bits != 0; bits &= bits - 1) {
+                count += countSatisfiedWatchers(2 * (base + Long.numberOfTrailingZeros(bits)) + 1, assignment);
+            }
+            for (long bits = ~assignment[w] & valid; bits != 0; bits &= bits - 1) {
+                count += countSatisfiedWatchers(2 * (base + Long.numberOfTrailingZeros(bits)), assignment);
+            }
+        }
+
+        return count;
+    }
+
+    private int countSatisfiedWatchers(int literal, long[] assignment) {
+        int count = 0;
+        for (int i = watchStart[literal]; i < watchStart[literal + 1]; i++) {
+            if (isSatisfied(watchers[i], assignment)) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * @param assignment truth assignment
+     * @return whether {@code assignment} satisfies at least one clause
+     */
+    public boolean isSatisfied(long[] assignment) {
+        for (int c = 0; c < clauseCount; c++) {
+            if (isSatisfied(c, assignment)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @param clause index of a clause
+     * @return the literals of the clause in increasing order, numbered {@code 2v + 1} for "variable {@code v} is
+     *         true" and {@code 2v} for "variable {@code v} is false". A clause that contains a variable and its
+     *         negation has both literals.
+     */
+    public int[] getLiterals(int clause) {
+        int[] literals = new int[clauseSize[clause]];
+        int size = 0;
+        int offset = clause * words;
+        for (int w = 0; w < words; w++) {
+            for (long bits = positive[offset + w] | negative[offset + w]; bits != 0; bits &= bits - 1) {
+                long bit = bits & -bits;
+                int v = (w << 6) + Long.numberOfTrailingZeros(bits);
+                if ((negative[offset + w] & bit) != 0) {
+                    literals[size++] = 2 * v;
+                }
+                if ((positive[offset + w] & bit) != 0) {
+                    literals[size++] = 2 * v + 1;
+                }
+            }
+        }
+
+        return literals;
+    }
+
+    public int getVariableCount() {
+        return variables.length;
+    }
+
+    public String getVariable(int variable) {
+        return variables[variable];
+    }
+
+    public int getClauseCount() {
+        return clauseCount;
+    }
+
+    /**
+     * @param clause index of a clause
+     * @return the number of literals in the clause
+     */
+    public int getClauseSize(int clause) {
+        return clauseSize[clause];
+    }
+}
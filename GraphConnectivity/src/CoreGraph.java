@@ -0,0 +1,52 @@
+import java.math.BigInteger;
+
+/**
+ * A piece of a graph that {@code GraphReducer} can not reduce any further. Every edge of a core stands for a part of
+ * the original graph, and has a number of ways in which it is present (the part connects its endpoints) and a number
+ * of ways in which it is absent (the part is attached to the rest of the graph, but does not connect the endpoints).
+ * An original edge is present in one way and absent in one way.
+ *
+ * The weighted number of connected spanning subgraphs of a core is the sum over all connected spanning subgraphs of
+ * the product of the numbers of ways in which their edges are present and the other edges are absent. It is counted
+ * exactly with a {@code FrontierCounter}.
+ */
+public class CoreGraph {
+    private final CompactGraph graph;
+    private final BigInteger[] present;
+    private final BigInteger[] absent;
+
+    /**
+     * @param graph   the core
+     * @param present for every edge, the number of ways in which it is present
+     * @param absent  for every edge, the number of ways in which it is absent
+     */
+    public CoreGraph(CompactGraph graph, BigInteger[] present, BigInteger[] absent) {
+        if (present.length != graph.getEdgeCount() || absent.length != graph.getEdgeCount()) {
+            throw new IllegalArgumentException("A core with " + graph.getEdgeCount() + " edges needs as many edge " +
+                    "weights. Got: " + present.length + " and " + absent.length + ".");
+        }
+
+        this.graph   = graph;
+        this.present = present;
+        this.absent  = absent;
+    }
+
+    public CompactGraph getGraph() {
+        return graph;
+    }
+
+    public BigInteger[] getPresent() {
+        return present;
+    }
+
+    public BigInteger[] getAbsent() {
+        return absent;
+    }
+
+    /**
+     * @return the exact weighted number of connected spanning subgraphs of this core
+     */
+    public BigInteger countSpanningSubgraphs() {
+        return new FrontierCounter(graph, present, absent).count();
+    }
+}
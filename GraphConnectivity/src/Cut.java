@@ -0,0 +1,65 @@
+import java.util.Arrays;
+
+/**
+ * A cut of a graph, represented by the sorted indices of its edges in a {@code CompactGraph}. A 64-bit hash of the
+ * edges is computed once on creation, such that cuts can be compared and interned cheaply.
+ */
+public final class Cut {
+    private final int[] edges;
+    private final long  hash;
+
+    /**
+     * @param edges indices of the edges in the cut, in increasing order. The array is not copied.
+     */
+    public Cut(int[] edges) {
+        this.edges = edges;
+        this.hash  = hash(edges);
+    }
+
+    /**
+     * Computes a 64-bit hash of an array of edge indices, by feeding every index through the finalizer of SplitMix64.
+     * This works for any array of integers, and is also used for the literals of the clauses in a {@code ClauseStore}.
+     * @param edges edge indices
+     * @return hash of {@code edges}
+     */
+    public static long hash(int[] edges) {
+        long h = edges.length * 0x9E3779B97F4A7C15L;
+        for (int edge : edges) {
+            h = mix(h + edge + 0x9E3779B97F4A7C15L);
+        }
+
+        return h;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public int[] getEdges() {
+        return edges;
+    }
+
+    public int size() {
+        return edges.length;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Cut)) return false;
+
+        Cut other = (Cut) o;
+        return hash == other.hash && Arrays.equals(edges, other.edges);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Result of an enumeration of small cuts: the distinct cuts that were found, together with statistics on how the
+ * enumeration went.
+ */
+public class CutEnumeration {
+    private final CutTable cuts;
+    private final int      repetitionsUsed;
+    private final int      repetitionsPlanned;
+    private final double   unseenMass;
+    private final int      minimumCutSize;
+    private final int      maxCutSize;
+
+    /**
+     * @param cuts               the distinct cuts found
+     * @param repetitionsUsed    number of repetitions of the contraction algorithm that were run
+     * @param repetitionsPlanned number of repetitions that would have been run without stopping early
+     * @param unseenMass         estimate of the fraction of the cuts found by a further repetition that would be new
+     * @param minimumCutSize     size of a minimum cut of the graph
+     * @param maxCutSize         size of the largest cuts that were kept
+     */
+    public CutEnumeration(CutTable cuts, int repetitionsUsed, int repetitionsPlanned, double unseenMass,
+                          int minimumCutSize, int maxCutSize) {
+        this.cuts               = cuts;
+        this.repetitionsUsed    = repetitionsUsed;
+        this.repetitionsPlanned = repetitionsPlanned;
+        this.unseenMass         = unseenMass;
+        this.minimumCutSize     = minimumCutSize;
+        this.maxCutSize         = maxCutSize;
+    }
+
+    public CutTable getCuts() {
+        return cuts;
+    }
+
+    public int getRepetitionsUsed() {
+        return repetitionsUsed;
+    }
+
+    public int getRepetitionsPlanned() {
+        return repetitionsPlanned;
+    }
+
+    public double getUnseenMass() {
+        return unseenMass;
+    }
+
+    public int getMinimumCutSize() {
+        return minimumCutSize;
+    }
+
+    public int getMaxCutSize() {
+        return maxCutSize;
+    }
+
+    /**
+     * @return the number of times the contraction algorithm found a cut larger than {@code getMaxCutSize()}, which
+     *         was therefore not turned into a clause
+     */
+    public long getRejectedCount() {
+        return cuts.getRejectedCount();
+    }
+
+    /**
+     * @return the estimated fraction of the cuts found by a further repetition that would already be known
+     */
+    public double getConfidence() {
+        return 1 - unseenMass;
+    }
+
+    @Override
+    public String toString() {
+        return cuts.size() + " cuts found in " + repetitionsUsed + " of " + repetitionsPlanned + " repetitions " +
+                "(confidence " + getConfidence() + "), " + getRejectedCount() + " cuts larger than " + maxCutSize +
+                " rejected";
+    }
+}
@@ -0,0 +1,15 @@
+/**
+ * The ways in which {@code Algorithm.approximateNumberOfSpanningSubgraphs} can enumerate the small cuts of a graph.
+ */
+public enum CutEnumerationMethod {
+    /**
+     * The recursive contraction algorithm of Karger and Stein, which finds every small cut with high probability.
+     */
+    RANDOM_CONTRACTION,
+
+    /**
+     * The deterministic enumeration of {@code ExactCutEnumerator}, which always finds every small cut. It is the
+     * faster choice for graphs of up to a few hundred vertices.
+     */
+    EXACT
+}
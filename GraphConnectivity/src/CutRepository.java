@@ -0,0 +1,150 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * The small cuts of a single graph, shared by all estimations on that graph. The cuts within a factor {@code alpha}
+ * of the size of a minimum cut are contained in those within any larger factor, so the repository only enumerates
+ * cuts when it is asked for a larger {@code alpha} than before, and otherwise selects the cuts of at most
+ * {@code alpha} times the minimum cut size from the cuts it already has.
+ *
+ * The cuts are kept sorted by size, without cuts that contain another cut, and compiled into a single DNF formula in
+ * that order. The formula for a given {@code alpha} is then a prefix of this formula, which is built with
+ * {@code CompiledDNFFormula.prefix()} and cached.
+ * All methods are synchronized, and the formulas that are returned are immutable, so one repository can serve
+ * estimations for several values of epsilon in parallel.
+ */
+public class CutRepository {
+    private final CompactGraph         graph;
+    private final CutEnumerationMethod method;
+    private final double               unseenCutMassThreshold;
+    private final SplittableRandom     random;
+    private final int                  minimumCutSize;
+
+    private final CutTable cuts = new CutTable();
+    // Largest alpha for which the cuts have been enumerated, 0 if none have been
+    private double enumeratedAlpha = 0;
+    // The cuts sorted by size, the compiled formula of all of them and the formulas of its prefixes
+    private List<Cut>          sortedCuts = new ArrayList<>();
+    private CompiledDNFFormula formula;
+    private final Map<Integer, CompiledDNFFormula> prefixes = new HashMap<>();
+
+    /**
+     * @param graph    graph of which to enumerate the cuts
+     * @param settings settings that determine how the cuts are enumerated
+     * @param random   source of randomness of the enumeration
+     */
+    public CutRepository(CompactGraph graph, EstimationSettings settings, SplittableRandom random) {
+        this.graph                  = graph;
+        this.method                 = settings.getCutEnumerationMethod();
+        this.unseenCutMassThreshold = settings.getUnseenCutMassThreshold();
+        this.random                 = random;
+        this.minimumCutSize         = StoerWagner.minimumCutSize(graph);
+    }
+
+    public CompactGraph getGraph() {
+        return graph;
+    }
+
+    public int getMinimumCutSize() {
+        return minimumCutSize;
+    }
+
+    /**
+     * @return whether the graph is connected. If it is not, the repository has no cuts, and every subset of the edges
+     *         leaves the graph disconnected.
+     */
+    public boolean isConnected() {
+        return Algorithm.isConnected(graph, minimumCutSize);
+    }
+
+    /**
+     * Makes sure that the cuts within a factor {@code alpha} of the size of a minimum cut have been enumerated.
+     * @param alpha factor of the minimum cut size, at least 1
+     */
+    public synchronized void enumerate(double alpha) {
+        // The cuts without edges of a graph that is not connected can not be enumerated, and are not needed
+        if (alpha <= enumeratedAlpha || !isConnected()) {
+            return;
+        }
+
+        Algorithm algorithm = Algorithm.getInstance();
+        CutTable found;
+        if (method == CutEnumerationMethod.EXACT) {
+            found = algorithm.enumerateSmallCuts(graph, alpha, minimumCutSize);
+        } else if (unseenCutMassThreshold > 0) {
+            found = algorithm.enumerateRandomSmallCutsAdaptively(graph, alpha, minimumCutSize, unseenCutMassThreshold,
+                    random.split()).getCuts();
+        } else {
+            found = algorithm.enumerateRandomSmallCuts(graph, alpha, minimumCutSize, random.split());
+        }
+        int before = cuts.size();
+        cuts.addAll(found);
+        enumeratedAlpha = alpha;
+
+        if (cuts.size() > before) {
+            // The store sorts the clauses by size, keeping cuts of equal size in the order in which they were found,
+            // and drops cuts that contain another cut, as their clauses are subsumed
+            ClauseStore clauses = ClauseStore.of(graph, cuts.getCuts()).eliminateSubsumed();
+            sortedCuts = new ArrayList<>();
+            for (int c = 0; c < clauses.size(); c++) {
+                int[] literals = clauses.getLiterals(c);
+                int[] edges = new int[literals.length];
+                for (int i = 0; i < literals.length; i++) {
+                    edges[i] = literals[i] >> 1;
+                }
+                sortedCuts.add(new Cut(edges));
+            }
+            formula = clauses.compile();
+            prefixes.clear();
+        }
+    }
+
+    /**
+     * @param alpha factor of the minimum cut size, at least 1
+     * @return the number of cuts within a factor {@code alpha} of the size of a minimum cut
+     */
+    public synchronized int getCutCount(double alpha) {
+        enumerate(alpha);
+        int maxCutSize = Algorithm.getInstance().getMaxCutSize(minimumCutSize, alpha);
+
+        // Binary search for the first cut that is too large
+        int low  = 0;
+        int high = sortedCuts.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedCuts.get(middle).size() <= maxCutSize) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * @param alpha factor of the minimum cut size, at least 1
+     * @return the cuts within a factor {@code alpha} of the size of a minimum cut, sorted by size
+     */
+    public synchronized List<Cut> getCuts(double alpha) {
+        return new ArrayList<>(sortedCuts.subList(0, getCutCount(alpha)));
+    }
+
+    /**
+     * Returns the formula that states that all edges of at least one of the cuts within a factor {@code alpha} of the
+     * size of a minimum cut are in the graph, in which variable {@code i} is edge {@code i} of the graph.
+     * @param alpha factor of the minimum cut size, at least 1
+     * @return the compiled formula, or {@code null} if there are no such cuts
+     */
+    public synchronized CompiledDNFFormula getFormula(double alpha) {
+        int count = getCutCount(alpha);
+        if (count == 0) {
+            return null;
+        }
+
+        return prefixes.computeIfAbsent(count, formula::prefix);
+    }
+}
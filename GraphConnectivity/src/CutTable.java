@@ -0,0 +1,185 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Interning table for cuts. Every distinct cut is stored once, in an open addressing table with linear probing that
+ * is keyed on the precomputed 64-bit hash of the cut. The cuts are also kept in insertion order, together with the
+ * number of times each of them was added.
+ */
+public class CutTable {
+    private long[]   hashes;
+    private Cut[]    slots;
+    private int[]    positions;
+    private int[]    counts = new int[16];
+    private int      singletons = 0;
+    private long     additions  = 0;
+    private long     rejections = 0;
+    private final List<Cut> cuts = new ArrayList<>();
+
+    public CutTable() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize number of distinct cuts the table should be able to hold without resizing
+     */
+    public CutTable(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, 2 * expectedSize - 1)) << 1;
+        hashes    = new long[capacity];
+        slots     = new Cut[capacity];
+        positions = new int[capacity];
+    }
+
+    /**
+     * Adds a cut to the table, unless an equal cut is already in it.
+     * @param edges sorted edge indices of the cut
+     * @return whether the cut was new
+     */
+    public boolean add(int[] edges) {
+        return intern(new Cut(edges)) == null;
+    }
+
+    /**
+     * Adds a cut to the table, unless an equal cut is already in it.
+     * @param cut cut to add
+     * @return whether the cut was new
+     */
+    public boolean add(Cut cut) {
+        return intern(cut) == null;
+    }
+
+    /**
+     * Adds all cuts of another table to this one. Every cut of {@code other} is added once, regardless of how often it
+     * was added to {@code other}. The rejections recorded by {@code other} are added to those of this table.
+     * @param other table to copy the cuts from
+     */
+    public void addAll(CutTable other) {
+        for (Cut cut : other.cuts) {
+            add(cut);
+        }
+        rejections += other.rejections;
+    }
+
+    /**
+     * Records that a cut was found but not added, because it is too large.
+     */
+    public void reject() {
+        rejections++;
+    }
+
+    /**
+     * Looks up {@code cut} and inserts it if it is not in the table yet. Either way, the number of times it was added
+     * is increased by one.
+     * @param cut cut to look up
+     * @return the equal cut that was already in the table, or {@code null} if {@code cut} was inserted
+     */
+    private Cut intern(Cut cut) {
+        additions++;
+        int mask = slots.length - 1;
+        int i = (int) cut.getHash() & mask;
+        while (slots[i] != null) {
+            if (hashes[i] == cut.getHash() && slots[i].equals(cut)) {
+                int count = ++counts[positions[i]];
+                if (count == 2) {
+                    singletons--;
+                }
+                return slots[i];
+            }
+            i = (i + 1) & mask;
+        }
+
+        if (cuts.size() == counts.length) {
+            counts = Arrays.copyOf(counts, 2 * counts.length);
+        }
+        slots[i]     = cut;
+        hashes[i]    = cut.getHash();
+        positions[i] = cuts.size();
+        counts[cuts.size()] = 1;
+        singletons++;
+        cuts.add(cut);
+
+        // Keep the load factor at most 1/2
+        if (2 * cuts.size() > slots.length) {
+            resize(2 * slots.length);
+        }
+
+        return null;
+    }
+
+    private void resize(int capacity) {
+        long[] newHashes    = new long[capacity];
+        Cut[]  newSlots     = new Cut[capacity];
+        int[]  newPositions = new int[capacity];
+        int mask = capacity - 1;
+
+        for (int position = 0; position < cuts.size(); position++) {
+            Cut cut = cuts.get(position);
+            int i = (int) cut.getHash() & mask;
+            while (newSlots[i] != null) {
+                i = (i + 1) & mask;
+            }
+            newSlots[i]     = cut;
+            newHashes[i]    = cut.getHash();
+            newPositions[i] = position;
+        }
+
+        hashes    = newHashes;
+        slots     = newSlots;
+        positions = newPositions;
+    }
+
+    public boolean contains(int[] edges) {
+        Cut cut = new Cut(edges);
+        int mask = slots.length - 1;
+        int i = (int) cut.getHash() & mask;
+        while (slots[i] != null) {
+            if (hashes[i] == cut.getHash() && Arrays.equals(slots[i].getEdges(), edges)) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+
+        return false;
+    }
+
+    public int size() {
+        return cuts.size();
+    }
+
+    /**
+     * @param position position of a cut in {@code getCuts()}
+     * @return the number of times that cut was added to this table
+     */
+    public int getCount(int position) {
+        return counts[position];
+    }
+
+    /**
+     * @return the total number of times a cut was added, counting repeated additions of the same cut
+     */
+    public long getTotalCount() {
+        return additions;
+    }
+
+    /**
+     * @return the number of distinct cuts that were added exactly once
+     */
+    public int getSingletonCount() {
+        return singletons;
+    }
+
+    /**
+     * @return the number of times a cut was rejected instead of added, counting repeated rejections of the same cut
+     */
+    public long getRejectedCount() {
+        return rejections;
+    }
+
+    /**
+     * @return the distinct cuts in the order in which they were first added
+     */
+    public List<Cut> getCuts() {
+        return cuts;
+    }
+}
@@ -0,0 +1,24 @@
+/**
+ * The estimators with which {@code KarpLubySampler} can approximate the number of satisfying truth assignments of a
+ * DNF formula.
+ */
+public enum DNFEstimator {
+    /**
+     * The basic estimator of Karp and Luby with {@code 4(k - 1)^2 / epsilon^2} samples, each of which counts all
+     * clauses satisfied by a random satisfying assignment.
+     */
+    KARP_LUBY,
+
+    /**
+     * The same samples as the basic estimator, drawn until the stopping rule of Dagum, Karp, Luby and Ross is met,
+     * which takes {@code O(log(1 / delta) / (mu epsilon^2))} samples, where {@code mu >= 1 / k} is the expected
+     * value of a sample.
+     */
+    KARP_LUBY_STOPPING_RULE,
+
+    /**
+     * The self-adjusting coverage algorithm of Karp, Luby and Madras, which only checks single random clauses and
+     * needs {@code O(k log(1 / delta) / epsilon^2)} clause checks in total.
+     */
+    SELF_ADJUSTING_COVERAGE
+}
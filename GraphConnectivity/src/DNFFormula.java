@@ -1,8 +1,11 @@
+import java.math.BigInteger;
 import java.util.*;
 
 public class DNFFormula {
     private Set<Clause> clauses;
     private Set<String> variables;
+    private CompiledDNFFormula compiled;
+    private KarpLubySampler sampler;
 
     public DNFFormula (Set<Clause> clauses) {
         this.clauses = clauses;
@@ -20,39 +23,6 @@ public class DNFFormula {
         this.variables = variables;
     }
 
-    private Clause pickRandomClause() {
-        RandomCollection<Clause> clauseCollection = new RandomCollection<>();
-        for (Clause clause : clauses) {
-            clauseCollection.add(clause, Math.pow(2, variables.size() - clause.getNrOfLiterals()));
-        }
-
-        return clauseCollection.next();
-    }
-
-    private Map<String, Boolean> findRandomTruthAssignmentSatisfyingClause(Clause clause) {
-        Map<String, Boolean> truthAssignment = new HashMap<>();
-
-        Set<Literal> literalsInClause = clause.getLiterals();
-        Random random = new Random();
-
-        for (String variable : variables) {
-            // If this variable is not in the clause, give it a random truth assignment.
-            truthAssignment.put(variable, random.nextBoolean());
-
-            // If it is in the clause, give it the truth assignment needed to satisfy the clause.
-            for (Literal literal : literalsInClause) {
-                if (variable.equals(literal.getId())) {
-                    truthAssignment.put(variable, literal.getRequiredTruthAssignment());
-                    break;
-                }
-            }
-
-
-        }
-
-        return truthAssignment;
-    }
-
     private boolean checkTruthAssignmentForClause(Map<String, Boolean> truthAssignment, Clause clause) {
         if (truthAssignment.size() != variables.size()) {
             throw new IllegalArgumentException("Truth assignment has " + truthAssignment.size() + ". " +
@@ -68,51 +38,75 @@ public class DNFFormula {
         return true;
     }
 
-    private int countSatisfyingClausesForTruthAssignment(Map<String, Boolean> truthAssignment) {
-        int count = 0;
+    /**
+     * Compiles this formula, without duplicate, unsatisfiable and subsumed clauses. These do not change the set of
+     * satisfying truth assignments, but every extra clause makes the Karp-Luby estimator slower.
+     * @return the compiled formula
+     */
+    public CompiledDNFFormula compile() {
+        return ClauseStore.of(clauses, variables).eliminateSubsumed().compile();
+    }
 
-        for (Clause clause : clauses) {
-            if (checkTruthAssignmentForClause(truthAssignment, clause)) {
-                count++;
-            }
+    /**
+     * Returns the compiled form of this formula, which is constructed the first time it is needed. The clauses and
+     * variables should not be modified after that.
+     * @return the compiled formula
+     */
+    private synchronized CompiledDNFFormula getCompiled() {
+        if (compiled == null) {
+            compiled = compile();
         }
 
-        return count;
+        return compiled;
     }
 
-    private double sampleXOnce() {
-        Clause randomClause = pickRandomClause();
-
-        Map<String, Boolean> truthAssignment = findRandomTruthAssignmentSatisfyingClause(randomClause);
+    /**
+     * Returns the Karp-Luby sampler of the compiled formula, which is constructed the first time it is needed.
+     * @return the Karp-Luby sampler of this formula
+     */
+    private synchronized KarpLubySampler getSampler() {
+        if (sampler == null) {
+            sampler = new KarpLubySampler(getCompiled(), new SplittableRandom());
+        }
 
-        int numberOfSatisfyingClauses = countSatisfyingClausesForTruthAssignment(truthAssignment);
+        return sampler;
+    }
 
-        int sizeOfM = 0;
-        for (Clause clause : clauses) {
-            sizeOfM += Math.pow(2, variables.size() - clause.getNrOfLiterals());
+    /**
+     * @param epsilon relative error
+     * @return the estimated number of satisfying truth assignments, which is 0 if every clause is unsatisfiable
+     */
+    public double approximateNumberOfSatisfyingTruthAssignments(double epsilon) {
+        if (getCompiled().getClauseCount() == 0) {
+            return 0;
         }
 
-        return sizeOfM / (double) numberOfSatisfyingClauses;
+        return getSampler().approximateNumberOfSatisfyingTruthAssignments(epsilon);
     }
 
-    private double averageXOverMultipleSamples(int samples) {
-        double sum = 0;
-
-        for (int i = 0; i < samples; i++) {
-            /*if (i * 10 / samples > (i - 1) * 10 / samples) {
-                System.out.println(i * 100 / samples + "%");
-            }*/
-            double value = sampleXOnce();
-            sum += value;
+    /**
+     * @param epsilon   relative error
+     * @param delta     probability that the relative error is exceeded, not used by the basic estimator
+     * @param estimator estimator to use
+     * @return the estimated number of satisfying truth assignments, which is 0 if every clause is unsatisfiable
+     */
+    public double approximateNumberOfSatisfyingTruthAssignments(double epsilon, double delta,
+                                                                DNFEstimator estimator) {
+        if (getCompiled().getClauseCount() == 0) {
+            return 0;
         }
 
-        return sum / samples;
+        return getSampler().approximateNumberOfSatisfyingTruthAssignments(epsilon, delta, estimator);
     }
 
-    public double approximateNumberOfSatisfyingTruthAssignments(double epsilon) {
-        int iterations = (int) (4 * Math.pow(clauses.size() - 1, 2) / Math.pow(epsilon, 2));
-        //System.out.println(iterations + " iterations");
-        return averageXOverMultipleSamples(iterations);
+    /**
+     * Counts the satisfying truth assignments exactly, by compiling this formula into a BDD. Unlike
+     * {@code countNumberOfSatisfyingTruthAssignments}, this does not enumerate all truth assignments, so it also works
+     * for formulas with hundreds of variables, as long as their BDD is not too large.
+     * @return the number of satisfying truth assignments
+     */
+    public BigInteger countNumberOfSatisfyingTruthAssignmentsWithBDD() {
+        return new BDDCounter(getCompiled()).count();
     }
 
     public int countNumberOfSatisfyingTruthAssignments() {
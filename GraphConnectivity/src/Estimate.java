@@ -0,0 +1,69 @@
+/**
+ * Result of a randomized estimation: the estimate itself, a confidence interval around it and the number of samples
+ * that were used to compute it.
+ */
+public class Estimate {
+    private final double value;
+    private final double lower;
+    private final double upper;
+    private final double delta;
+    private final long   sampleCount;
+
+    /**
+     * @param value       the estimate
+     * @param lower       lower end of the confidence interval
+     * @param upper       upper end of the confidence interval
+     * @param delta       probability that the estimated quantity lies outside the confidence interval
+     * @param sampleCount number of samples used
+     */
+    public Estimate(double value, double lower, double upper, double delta, long sampleCount) {
+        this.value       = value;
+        this.lower       = lower;
+        this.upper       = upper;
+        this.delta       = delta;
+        this.sampleCount = sampleCount;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public double getLower() {
+        return lower;
+    }
+
+    public double getUpper() {
+        return upper;
+    }
+
+    public double getDelta() {
+        return delta;
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * @return the largest relative distance from the estimate to an end of the confidence interval
+     */
+    public double getRelativeError() {
+        return Math.max(value - lower, upper - value) / value;
+    }
+
+    /**
+     * Returns this estimate with the estimate and the confidence interval multiplied by {@code 2^exponent}.
+     * @param exponent power of two to multiply by
+     * @return the scaled estimate
+     */
+    public Estimate scalb(int exponent) {
+        return new Estimate(Math.scalb(value, exponent), Math.scalb(lower, exponent), Math.scalb(upper, exponent),
+                delta, sampleCount);
+    }
+
+    @Override
+    public String toString() {
+        return value + " in [" + lower + ", " + upper + "] with confidence " + (1 - delta) + " after " +
+                sampleCount + " samples";
+    }
+}
@@ -0,0 +1,203 @@
+/**
+ * Settings for {@code Algorithm.approximateNumberOfSpanningSubgraphs}. The setters return the settings themselves,
+ * such that they can be chained. The default settings give the behaviour of the original algorithm.
+ */
+public class EstimationSettings {
+    private CutEnumerationMethod cutEnumerationMethod   = CutEnumerationMethod.RANDOM_CONTRACTION;
+    private double               unseenCutMassThreshold = 0;
+    private DNFEstimator         estimator              = DNFEstimator.KARP_LUBY;
+    private double               delta                  = 0.25;
+    private boolean              parallelSampling       = false;
+    private int                  maxExactFrontierWidth  = 0;
+    private boolean              reduceGraph            = false;
+    private boolean              verbose                = false;
+    private boolean              seeded                 = false;
+    private long                 seed                   = 0;
+
+    /**
+     * @param method method with which to enumerate the small cuts of the graph
+     * @return these settings
+     */
+    public EstimationSettings setCutEnumerationMethod(CutEnumerationMethod method) {
+        if (method == null) {
+            throw new IllegalArgumentException("The cut enumeration method should not be null.");
+        }
+        this.cutEnumerationMethod = method;
+        return this;
+    }
+
+    public CutEnumerationMethod getCutEnumerationMethod() {
+        return cutEnumerationMethod;
+    }
+
+    /**
+     * Makes the enumeration of small cuts stop as soon as the estimated fraction of new cuts among the cuts that a
+     * further repetition of the contraction algorithm would find drops below {@code threshold}. A threshold of 0
+     * always runs all {@code (log2 n)^2} repetitions. Only applies to {@code CutEnumerationMethod.RANDOM_CONTRACTION}.
+     * @param threshold threshold on the estimated unseen cut mass, between 0 and 1
+     * @return these settings
+     */
+    public EstimationSettings setUnseenCutMassThreshold(double threshold) {
+        if (threshold < 0 || threshold > 1) {
+            throw new IllegalArgumentException("The unseen cut mass threshold should be between 0 and 1. Got: " +
+                    threshold + ".");
+        }
+        this.unseenCutMassThreshold = threshold;
+        return this;
+    }
+
+    public double getUnseenCutMassThreshold() {
+        return unseenCutMassThreshold;
+    }
+
+    /**
+     * @param estimator estimator with which to approximate the number of satisfying truth assignments of the formula
+     *                  built from the cuts
+     * @return these settings
+     */
+    public EstimationSettings setEstimator(DNFEstimator estimator) {
+        if (estimator == null) {
+            throw new IllegalArgumentException("The DNF estimator should not be null.");
+        }
+        this.estimator = estimator;
+        return this;
+    }
+
+    public DNFEstimator getEstimator() {
+        return estimator;
+    }
+
+    /**
+     * Sets the probability with which the estimate of the self-adjusting coverage algorithm or the stopping rule may be
+     * off by more than the relative error. The basic Karp-Luby estimator always has a probability of 1/4, which is the
+     * default; for that estimator, delta only sets the confidence of the reported confidence interval.
+     * @param delta probability of failure, strictly between 0 and 1
+     * @return these settings
+     */
+    public EstimationSettings setDelta(double delta) {
+        if (delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("Delta should be strictly between 0 and 1. Got: " + delta + ".");
+        }
+        this.delta = delta;
+        return this;
+    }
+
+    public double getDelta() {
+        return delta;
+    }
+
+    /**
+     * @param parallelSampling whether to draw the samples of the basic Karp-Luby estimator in parallel, in the
+     *                         common fork/join pool
+     * @return these settings
+     */
+    public EstimationSettings setParallelSampling(boolean parallelSampling) {
+        this.parallelSampling = parallelSampling;
+        return this;
+    }
+
+    public boolean isParallelSampling() {
+        return parallelSampling;
+    }
+
+    /**
+     * Makes the number of connected spanning subgraphs be counted exactly with a {@code FrontierCounter} instead of
+     * estimated, if the graph can be ordered with a frontier of at most {@code width} vertices. The number of states of
+     * the counter grows quickly with the width; up to about 12 it takes well under a second.
+     * @param width largest frontier width for which to count exactly, or 0 to always estimate
+     * @return these settings
+     */
+    public EstimationSettings setMaxExactFrontierWidth(int width) {
+        if (width < 0) {
+            throw new IllegalArgumentException("The maximum frontier width should not be negative. Got: " + width +
+                    ".");
+        }
+        this.maxExactFrontierWidth = width;
+        return this;
+    }
+
+    public int getMaxExactFrontierWidth() {
+        return maxExactFrontierWidth;
+    }
+
+    /**
+     * Makes the graph be reduced with {@code GraphReducer} before the estimation. Loops and pendant vertices are then
+     * removed exactly, and the graph is split into its blocks, each of which is counted or estimated on its own with
+     * the relative error of these settings. A block is counted exactly if the series and parallel reductions leave
+     * only cores within the maximum frontier width of these settings. A block that is estimated gets no series or
+     * parallel reduction, as these would make the failure probabilities of its edges unequal, so only blocks that are
+     * counted exactly benefit from them.
+     * @param reduceGraph whether to reduce the graph first
+     * @return these settings
+     */
+    public EstimationSettings setReduceGraph(boolean reduceGraph) {
+        this.reduceGraph = reduceGraph;
+        return this;
+    }
+
+    public boolean isReduceGraph() {
+        return reduceGraph;
+    }
+
+    /**
+     * Makes the cut enumeration and the sampling draw their random numbers from streams that only depend on
+     * {@code seed}. Estimations with the same seed then use common random numbers, whatever their epsilon, so the
+     * differences between their results are due to epsilon rather than to sampling noise, and an estimation can be
+     * replayed exactly. Without a seed, every estimation draws fresh random numbers.
+     * @param seed seed of the random streams
+     * @return these settings
+     */
+    public EstimationSettings setSeed(long seed) {
+        this.seeded = true;
+        this.seed   = seed;
+        return this;
+    }
+
+    /**
+     * @return these settings, without a seed
+     */
+    public EstimationSettings clearSeed() {
+        this.seeded = false;
+        this.seed   = 0;
+        return this;
+    }
+
+    public boolean hasSeed() {
+        return seeded;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return a copy of these settings, which can be changed without affecting these settings
+     */
+    public EstimationSettings copy() {
+        EstimationSettings copy = new EstimationSettings();
+        copy.cutEnumerationMethod   = cutEnumerationMethod;
+        copy.unseenCutMassThreshold = unseenCutMassThreshold;
+        copy.estimator              = estimator;
+        copy.delta                  = delta;
+        copy.parallelSampling       = parallelSampling;
+        copy.maxExactFrontierWidth  = maxExactFrontierWidth;
+        copy.reduceGraph            = reduceGraph;
+        copy.verbose                = verbose;
+        copy.seeded                 = seeded;
+        copy.seed                   = seed;
+        return copy;
+    }
+
+    /**
+     * @param verbose whether to print statistics of the intermediate steps
+     * @return these settings
+     */
+    public EstimationSettings setVerbose(boolean verbose) {
+        this.verbose = verbose;
+        return this;
+    }
+
+    public boolean isVerbose() {
+        return verbose;
+    }
+}
@@ -0,0 +1,301 @@
+import java.util.Arrays;
+
+/**
+ * Deterministic enumeration of all cuts of a graph whose size is within a factor alpha of the size of a minimum cut.
+ * Only cuts whose two sides are both connected are reported, as these are exactly the cuts that the contraction
+ * algorithm can find; every other cut contains one of them.
+ *
+ * The cuts are enumerated by branching on the side of every vertex, in breadth first order. The first vertex is
+ * always on the source side. At every node of the branching tree, a maximum flow from the vertices fixed on the
+ * source side to the vertices fixed on the sink side gives the size of the smallest cut that extends the current
+ * assignment. Branches in which this exceeds the bound are cut off, so every branch that is explored ends in at least
+ * one cut within the bound (as in the enumeration of Vazirani and Yannakakis). Since the bound is small, every flow
+ * computation only needs a few augmenting paths.
+ */
+public class ExactCutEnumerator {
+    private static final byte FREE   = 0;
+    private static final byte SOURCE = 1;
+    private static final byte SINK   = 2;
+
+    private final CompactGraph graph;
+    private final int   n;
+    private final int[] order;
+    // Arc 2e goes from endpoint 0 to endpoint 1 of edge e, arc 2e+1 in the opposite direction
+    private final int[] arcStart;
+    private final int[] arcs;
+    private final int[] residual;
+    private final byte[] side;
+
+    // Buffers for the breadth first searches
+    private final int[] queue;
+    private final int[] parentArc;
+    private final int[] visited;
+    private int visitMark = 0;
+
+    public ExactCutEnumerator(CompactGraph graph) {
+        this.graph = graph;
+        this.n     = graph.getNodeCount();
+        int m      = graph.getEdgeCount();
+
+        // Build the arc lists of all vertices
+        arcStart = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            arcStart[graph.getEndpoint0(e) + 1]++;
+            arcStart[graph.getEndpoint1(e) + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            arcStart[v + 1] += arcStart[v];
+        }
+        arcs = new int[2 * m];
+        int[] fill = Arrays.copyOf(arcStart, n);
+        for (int e = 0; e < m; e++) {
+            arcs[fill[graph.getEndpoint0(e)]++] = 2 * e;
+            arcs[fill[graph.getEndpoint1(e)]++] = 2 * e + 1;
+        }
+
+        residual  = new int[2 * m];
+        side      = new byte[n];
+        queue     = new int[n];
+        parentArc = new int[n];
+        visited   = new int[n];
+        order     = breadthFirstOrder();
+    }
+
+    /**
+     * Enumerates all cuts of size at most {@code alpha} times the size of a minimum cut, whose sides are connected.
+     * The graph should be connected: otherwise the minimum cut size is 0, and if the graph has three or more
+     * components, none of its cuts without edges has two connected sides.
+     * @param alpha factor of the minimum cut size, at least 1
+     * @return the cuts found
+     */
+    public CutTable enumerate(double alpha) {
+        int minimumCutSize = getMinimumCutSize();
+        if (n >= 2 && minimumCutSize == 0) {
+            throw new IllegalArgumentException("Cannot enumerate the small cuts of a graph that is not connected.");
+        }
+
+        return enumerateUpTo((int) Math.floor(alpha * minimumCutSize + 1e-9));
+    }
+
+    /**
+     * Enumerates all cuts with at most {@code bound} edges whose sides are connected.
+     * @param bound maximum number of edges in a cut
+     * @return the cuts found
+     */
+    public CutTable enumerateUpTo(int bound) {
+        CutTable cuts = new CutTable();
+        if (n < 2) {
+            return cuts;
+        }
+
+        // Classify every cut by the first vertex (in order) on the sink side
+        Arrays.fill(side, FREE);
+        side[order[0]] = SOURCE;
+        for (int i = 1; i < n; i++) {
+            side[order[i]] = SINK;
+            if (maxFlow(bound) <= bound) {
+                branch(i + 1, bound, cuts);
+            }
+            side[order[i]] = SOURCE;
+        }
+
+        return cuts;
+    }
+
+    /**
+     * Returns the size of a minimum cut, as the smallest maximum flow from the first vertex to any other vertex.
+     * @return the size of a minimum cut of the graph, or 0 if it has fewer than two vertices
+     */
+    public int getMinimumCutSize() {
+        if (n < 2) {
+            return 0;
+        }
+
+        int best = Integer.MAX_VALUE;
+        Arrays.fill(side, FREE);
+        side[order[0]] = SOURCE;
+        for (int i = 1; i < n; i++) {
+            side[order[i]] = SINK;
+            best = Math.min(best, maxFlow(best == Integer.MAX_VALUE ? Integer.MAX_VALUE - 1 : best));
+            side[order[i]] = FREE;
+        }
+
+        return best;
+    }
+
+    private void branch(int i, int bound, CutTable cuts) {
+        if (i == n) {
+            if (sidesAreConnected()) {
+                cuts.add(cutEdges());
+            }
+            return;
+        }
+
+        int v = order[i];
+        side[v] = SOURCE;
+        if (maxFlow(bound) <= bound) {
+            branch(i + 1, bound, cuts);
+        }
+        side[v] = SINK;
+        if (maxFlow(bound) <= bound) {
+            branch(i + 1, bound, cuts);
+        }
+        side[v] = FREE;
+    }
+
+    /**
+     * Computes the maximum flow from the source vertices to the sink vertices, where every edge has capacity 1 in
+     * either direction. The computation is stopped as soon as the flow exceeds {@code limit}.
+     * @param limit value above which the exact flow is not of interest
+     * @return the maximum flow, or {@code limit + 1} if it exceeds {@code limit}
+     */
+    private int maxFlow(int limit) {
+        Arrays.fill(residual, 1);
+
+        int flow = 0;
+        while (flow <= limit) {
+            int sink = findAugmentingPath();
+            if (sink == -1) {
+                break;
+            }
+
+            // Push one unit of flow back along the path
+            int v = sink;
+            while (side[v] != SOURCE) {
+                int arc = parentArc[v];
+                residual[arc]--;
+                residual[arc ^ 1]++;
+                v = tail(arc);
+            }
+            flow++;
+        }
+
+        return flow;
+    }
+
+    /**
+     * Performs a breadth first search in the residual graph from all source vertices at once.
+     * @return a sink vertex that was reached, or -1 if there is none
+     */
+    private int findAugmentingPath() {
+        visitMark++;
+        int head = 0;
+        int tail = 0;
+        for (int v = 0; v < n; v++) {
+            if (side[v] == SOURCE) {
+                visited[v] = visitMark;
+                queue[tail++] = v;
+            }
+        }
+
+        while (head < tail) {
+            int u = queue[head++];
+            for (int k = arcStart[u]; k < arcStart[u + 1]; k++) {
+                int arc = arcs[k];
+                int w = head(arc);
+                if (residual[arc] > 0 && visited[w] != visitMark) {
+                    visited[w] = visitMark;
+                    parentArc[w] = arc;
+                    if (side[w] == SINK) {
+                        return w;
+                    }
+                    queue[tail++] = w;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    private int head(int arc) {
+        int e = arc >> 1;
+        return (arc & 1) == 0 ? graph.getEndpoint1(e) : graph.getEndpoint0(e);
+    }
+
+    private int tail(int arc) {
+        int e = arc >> 1;
+        return (arc & 1) == 0 ? graph.getEndpoint0(e) : graph.getEndpoint1(e);
+    }
+
+    /**
+     * @return whether the vertices on the source side and those on the sink side both induce a connected subgraph
+     */
+    private boolean sidesAreConnected() {
+        return countReachable(SOURCE) + countReachable(SINK) == n;
+    }
+
+    /**
+     * @param s side to search
+     * @return the number of vertices reachable from the first vertex on side {@code s} within that side
+     */
+    private int countReachable(byte s) {
+        int start = -1;
+        for (int v = 0; v < n && start == -1; v++) {
+            if (side[v] == s) {
+                start = v;
+            }
+        }
+
+        visitMark++;
+        int head = 0;
+        int tail = 0;
+        visited[start] = visitMark;
+        queue[tail++] = start;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int k = arcStart[u]; k < arcStart[u + 1]; k++) {
+                int w = head(arcs[k]);
+                if (side[w] == s && visited[w] != visitMark) {
+                    visited[w] = visitMark;
+                    queue[tail++] = w;
+                }
+            }
+        }
+
+        return tail;
+    }
+
+    private int[] cutEdges() {
+        int m = graph.getEdgeCount();
+        int[] edges = new int[m];
+        int size = 0;
+        for (int e = 0; e < m; e++) {
+            if (side[graph.getEndpoint0(e)] != side[graph.getEndpoint1(e)]) {
+                edges[size++] = e;
+            }
+        }
+
+        return Arrays.copyOf(edges, size);
+    }
+
+    /**
+     * Orders the vertices in breadth first order, such that every vertex (except the first of each connected
+     * component) is adjacent to an earlier vertex. This makes the flow bounds effective early in the branching.
+     * @return the vertices in breadth first order
+     */
+    private int[] breadthFirstOrder() {
+        int[] result = new int[n];
+        boolean[] seen = new boolean[n];
+        int size = 0;
+        for (int start = 0; start < n; start++) {
+            if (seen[start]) {
+                continue;
+            }
+            seen[start] = true;
+            int head = size;
+            result[size++] = start;
+            while (head < size) {
+                int u = result[head++];
+                for (int k = arcStart[u]; k < arcStart[u + 1]; k++) {
+                    int w = head(arcs[k]);
+                    if (!seen[w]) {
+                        seen[w] = true;
+                        result[size++] = w;
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,313 @@
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Exhaustive counter of the faulty subsets of the variable edges of a graph. The graph has at most 64 vertices, a
+ * number of variable edges (at most 62), which may each be present or absent, and a number of fixed edges, which are
+ * always present. A subset of the variable edges is faulty if
+ * <ul>
+ *     <li>some vertex that has to be covered is not an endpoint of any present variable edge, or</li>
+ *     <li>the terminals are not all connected by the present variable edges together with the fixed edges.</li>
+ * </ul>
+ * By default there are no coverage constraints and all vertices are terminals.
+ *
+ * The subsets are walked in Gray code order, so that every step adds or removes a single edge. The graph is kept as
+ * an array of adjacency bitmasks, and connectivity is checked with a breadth first search on these masks. It is only
+ * checked when it can have changed: adding an edge keeps a connected graph connected, and removing one keeps a
+ * disconnected graph disconnected. It is also not checked while a coverage constraint is violated. The walk is split
+ * into independent parts by fixing a prefix of the highest edges, which are counted in parallel.
+ */
+public class FaultEnumerator {
+    private static final int MAX_EDGES = 62;
+
+    private final int nodeCount;
+    private final List<int[]> variableEdges = new ArrayList<>();
+    private final List<int[]> fixedEdges    = new ArrayList<>();
+    private long terminals;
+    private long requiredCoverage = 0;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    /**
+     * @param nodeCount number of vertices, at most 64
+     */
+    public FaultEnumerator(int nodeCount) {
+        if (nodeCount < 1 || nodeCount > 64) {
+            throw new IllegalArgumentException("A fault enumerator supports 1 to 64 vertices. Got: " + nodeCount +
+                    ".");
+        }
+        this.nodeCount = nodeCount;
+        this.terminals = nodeCount == 64 ? -1L : (1L << nodeCount) - 1;
+    }
+
+    /**
+     * Creates a fault enumerator in which the edges of {@code graph} are variable and the edges of {@code fixed} are
+     * fixed. Vertices are identified by their index in both graphs.
+     * @param graph graph with the variable edges
+     * @param fixed graph with the fixed edges, with at most as many vertices as {@code graph}
+     */
+    public FaultEnumerator(Graph graph, Graph fixed) {
+        this(graph.getNodeCount());
+        for (Edge edge : graph.getEachEdge()) {
+            addVariableEdge(edge.getNode0().getIndex(), edge.getNode1().getIndex());
+        }
+        for (Edge edge : fixed.getEachEdge()) {
+            addFixedEdge(edge.getNode0().getIndex(), edge.getNode1().getIndex());
+        }
+    }
+
+    /**
+     * Adds an edge that may be present or absent. Variable edges are numbered in the order in which they are added.
+     * @param u first endpoint
+     * @param v second endpoint
+     * @return this enumerator
+     */
+    public FaultEnumerator addVariableEdge(int u, int v) {
+        checkVertex(u);
+        checkVertex(v);
+        if (variableEdges.size() == MAX_EDGES) {
+            throw new IllegalArgumentException("A fault enumerator supports at most " + MAX_EDGES + " variable " +
+                    "edges.");
+        }
+        variableEdges.add(new int[] {u, v});
+        return this;
+    }
+
+    /**
+     * Adds an edge that is always present.
+     * @param u first endpoint
+     * @param v second endpoint
+     * @return this enumerator
+     */
+    public FaultEnumerator addFixedEdge(int u, int v) {
+        checkVertex(u);
+        checkVertex(v);
+        fixedEdges.add(new int[] {u, v});
+        return this;
+    }
+
+    /**
+     * @param vertices vertices that have to be connected, of which there is at least one
+     * @return this enumerator
+     */
+    public FaultEnumerator setTerminals(int... vertices) {
+        if (vertices.length == 0) {
+            throw new IllegalArgumentException("A fault enumerator needs at least one terminal.");
+        }
+        terminals = toMask(vertices);
+        return this;
+    }
+
+    /**
+     * @param vertices vertices that have to be an endpoint of at least one present variable edge
+     * @return this enumerator
+     */
+    public FaultEnumerator setRequiredCoverage(int... vertices) {
+        requiredCoverage = toMask(vertices);
+        return this;
+    }
+
+    /**
+     * @param pool pool in which the parts of the walk are counted
+     * @return this enumerator
+     */
+    public FaultEnumerator setPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    private long toMask(int[] vertices) {
+        long mask = 0;
+        for (int v : vertices) {
+            checkVertex(v);
+            mask |= 1L << v;
+        }
+
+        return mask;
+    }
+
+    private void checkVertex(int v) {
+        if (v < 0 || v >= nodeCount) {
+            throw new IllegalArgumentException("Vertex " + v + " does not exist in a graph with " + nodeCount +
+                    " vertices.");
+        }
+    }
+
+    /**
+     * Counts the faulty subsets of the variable edges.
+     * @return the number of faulty subsets
+     */
+    public long countFaultySubsets() {
+        int m = variableEdges.size();
+
+        // Fix enough of the highest edges to give every thread several parts to work on
+        int prefixBits = 0;
+        while (prefixBits < m && (1 << prefixBits) < 4 * pool.getParallelism()) {
+            prefixBits++;
+        }
+        int lowBits = m - prefixBits;
+
+        List<RecursiveTask<Long>> tasks = new ArrayList<>();
+        for (long prefix = 0; prefix < 1L << prefixBits; prefix++) {
+            long fixedBits = prefix << lowBits;
+            tasks.add(new RecursiveTask<Long>() {
+                @Override
+                protected Long compute() {
+                    return new Walk(fixedBits).count(lowBits);
+                }
+            });
+        }
+
+        return pool.invoke(new RecursiveTask<Long>() {
+            @Override
+            protected Long compute() {
+                long sum = 0;
+                for (RecursiveTask<Long> task : ForkJoinTask.invokeAll(tasks)) {
+                    sum += task.join();
+                }
+
+                return sum;
+            }
+        });
+    }
+
+    /**
+     * The state of a walk through all subsets that agree with a given subset on the highest edges.
+     */
+    private class Walk {
+        private static final int UNKNOWN = -1;
+
+        // Number of present edges (fixed or variable) between every pair of vertices, and the resulting adjacency
+        private final int[]  multiplicity = new int[nodeCount * nodeCount];
+        private final long[] adjacency    = new long[nodeCount];
+        // Number of present variable edges at every vertex, and the required vertices that are not covered
+        private final int[]  degree       = new int[nodeCount];
+        private long uncovered = requiredCoverage;
+        private int  connected = UNKNOWN;
+
+        private Walk(long subset) {
+            for (int[] edge : fixedEdges) {
+                link(edge[0], edge[1], 1);
+            }
+            for (int i = 0; i < variableEdges.size(); i++) {
+                if ((subset >>> i & 1) != 0) {
+                    add(i);
+                }
+            }
+        }
+
+        /**
+         * Counts the faulty subsets among the current subset and those that differ from it in the lowest
+         * {@code bits} edges.
+         * @param bits number of edges to vary
+         * @return the number of faulty subsets
+         */
+        private long count(int bits) {
+            long present = 0;
+            long faulty  = isFaulty() ? 1 : 0;
+            for (long step = 1; step < 1L << bits; step++) {
+                // The edge that changes between consecutive Gray codes is the lowest set bit of the step
+                int edge = Long.numberOfTrailingZeros(step);
+                present ^= 1L << edge;
+                if ((present >>> edge & 1) != 0) {
+                    add(edge);
+                } else {
+                    remove(edge);
+                }
+
+                if (isFaulty()) {
+                    faulty++;
+                }
+            }
+
+            return faulty;
+        }
+
+        private boolean isFaulty() {
+            if (uncovered != 0) {
+                return true;
+            }
+            if (connected == UNKNOWN) {
+                connected = terminalsConnected() ? 1 : 0;
+            }
+
+            return connected == 0;
+        }
+
+        private void add(int edge) {
+            int[] endpoints = variableEdges.get(edge);
+            link(endpoints[0], endpoints[1], 1);
+            cover(endpoints[0], 1);
+            if (endpoints[1] != endpoints[0]) {
+                cover(endpoints[1], 1);
+            }
+
+            // A connected graph stays connected
+            if (connected != 1) {
+                connected = UNKNOWN;
+            }
+        }
+
+        private void remove(int edge) {
+            int[] endpoints = variableEdges.get(edge);
+            link(endpoints[0], endpoints[1], -1);
+            cover(endpoints[0], -1);
+            if (endpoints[1] != endpoints[0]) {
+                cover(endpoints[1], -1);
+            }
+
+            // A disconnected graph stays disconnected
+            if (connected != 0) {
+                connected = UNKNOWN;
+            }
+        }
+
+        private void link(int u, int v, int change) {
+            if (u == v) {
+                return;
+            }
+
+            int count = multiplicity[u * nodeCount + v] += change;
+            multiplicity[v * nodeCount + u] = count;
+            if (count > 0) {
+                adjacency[u] |= 1L << v;
+                adjacency[v] |= 1L << u;
+            } else {
+                adjacency[u] &= ~(1L << v);
+                adjacency[v] &= ~(1L << u);
+            }
+        }
+
+        private void cover(int v, int change) {
+            degree[v] += change;
+            if (degree[v] == 0) {
+                uncovered |= requiredCoverage & 1L << v;
+            } else {
+                uncovered &= ~(1L << v);
+            }
+        }
+
+        /**
+         * @return whether all terminals lie in the same component, found by a breadth first search on the bitmasks
+         */
+        private boolean terminalsConnected() {
+            long reached  = Long.lowestOneBit(terminals);
+            long frontier = reached;
+            while (frontier != 0 && (reached & terminals) != terminals) {
+                long next = 0;
+                for (long bits = frontier; bits != 0; bits &= bits - 1) {
+                    next |= adjacency[Long.numberOfTrailingZeros(bits)];
+                }
+                frontier = next & ~reached;
+                reached |= frontier;
+            }
+
+            return (reached & terminals) == terminals;
+        }
+    }
+}
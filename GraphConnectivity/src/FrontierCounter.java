@@ -0,0 +1,372 @@
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exact counter of the connected spanning subgraphs of a graph, that is: the subsets of the edges that connect all
+ * vertices. The edges are decided one at a time, in a fixed order, with a dynamic program over the frontier: the
+ * vertices that have some edges decided and some undecided. The state of a partial subgraph is the partition of the
+ * frontier into the components of the subgraph, and the number of partial subgraphs is kept for every state.
+ *
+ * A component can only become part of a connected spanning subgraph as long as it contains a frontier vertex, so a
+ * state is dropped as soon as one of its components loses its last frontier vertex while other vertices remain. The
+ * number of states is at most the Bell number of the frontier width, so this is fast for graphs that can be ordered
+ * with a narrow frontier, such as sparse graphs with a long and thin structure, regardless of their number of edges.
+ *
+ * States are keyed by strings with one character per frontier vertex, in frontier order: the number of its component,
+ * with components numbered in order of first appearance.
+ */
+public class FrontierCounter {
+    private final CompactGraph graph;
+    // For every edge, the number of ways in which it can be present and absent, or null if these are all 1
+    private final BigInteger[] present;
+    private final BigInteger[] absent;
+    private final int[] edgeOrder;
+    // Position in the edge order of the first and the last edge of every vertex
+    private final int[] firstEdge;
+    private final int[] lastEdge;
+
+    public FrontierCounter(CompactGraph graph) {
+        this(graph, null, null);
+    }
+
+    /**
+     * Creates a counter of weighted connected spanning subgraphs, in which every edge stands for a number of ways in
+     * which it can be present and a number of ways in which it can be absent. The weight of a subset of the edges is
+     * the product of the numbers of ways in which the edges in the subset are present and those outside it are absent.
+     * This is the form in which {@code GraphReducer} leaves the edges that replace series and parallel structures.
+     * @param graph   input graph
+     * @param present for every edge, the number of ways in which it can be present, or {@code null} for 1
+     * @param absent  for every edge, the number of ways in which it can be absent, or {@code null} for 1
+     */
+    public FrontierCounter(CompactGraph graph, BigInteger[] present, BigInteger[] absent) {
+        this.graph     = graph;
+        this.present   = present;
+        this.absent    = absent;
+        this.edgeOrder = computeEdgeOrder();
+
+        int n = graph.getNodeCount();
+        firstEdge = new int[n];
+        lastEdge  = new int[n];
+        Arrays.fill(firstEdge, -1);
+        for (int i = 0; i < edgeOrder.length; i++) {
+            for (int v : endpoints(edgeOrder[i])) {
+                if (firstEdge[v] == -1) {
+                    firstEdge[v] = i;
+                }
+                lastEdge[v] = i;
+            }
+        }
+    }
+
+    /**
+     * Orders the edges such that the frontier stays narrow. The vertices are numbered greedily: the next vertex is the
+     * one that increases the number of vertices with unnumbered neighbors the least, preferring vertices adjacent to
+     * many numbered ones. The edges are then sorted on the larger number of their endpoints, and then on the smaller
+     * one, so every vertex enters the frontier with its first edge and leaves it soon after its last neighbor is
+     * numbered.
+     * @return the edges in the order in which they are decided
+     */
+    private int[] computeEdgeOrder() {
+        int n = graph.getNodeCount();
+        int m = graph.getEdgeCount();
+
+        List<List<Integer>> neighbors = new ArrayList<>();
+        for (int v = 0; v < n; v++) {
+            neighbors.add(new ArrayList<>());
+        }
+        for (int e = 0; e < m; e++) {
+            int u = graph.getEndpoint0(e);
+            int v = graph.getEndpoint1(e);
+            // Parallel edges do not matter for the order
+            if (u != v && !neighbors.get(u).contains(v)) {
+                neighbors.get(u).add(v);
+                neighbors.get(v).add(u);
+            }
+        }
+
+        int[] position  = new int[n];
+        int[] unnumbered = new int[n];
+        int[] numbered   = new int[n];
+        Arrays.fill(position, -1);
+        for (int v = 0; v < n; v++) {
+            unnumbered[v] = neighbors.get(v).size();
+        }
+
+        for (int i = 0; i < n; i++) {
+            int best = -1;
+            int bestDelta = Integer.MAX_VALUE;
+            for (int v = 0; v < n; v++) {
+                if (position[v] != -1) {
+                    continue;
+                }
+
+                // Change in the number of vertices with unnumbered neighbors if v is numbered next
+                int delta = unnumbered[v] > 0 ? 1 : 0;
+                for (int w : neighbors.get(v)) {
+                    if (position[w] != -1 && unnumbered[w] == 1) {
+                        delta--;
+                    }
+                }
+
+                if (best == -1 || delta < bestDelta || (delta == bestDelta && numbered[v] > numbered[best])) {
+                    best = v;
+                    bestDelta = delta;
+                }
+            }
+
+            position[best] = i;
+            for (int w : neighbors.get(best)) {
+                unnumbered[w]--;
+                numbered[w]++;
+            }
+        }
+
+        Integer[] edges = new Integer[m];
+        for (int e = 0; e < m; e++) {
+            edges[e] = e;
+        }
+        Arrays.sort(edges, (a, b) -> {
+            int compare = Integer.compare(maxPosition(a, position), maxPosition(b, position));
+            return compare != 0 ? compare : Integer.compare(minPosition(a, position), minPosition(b, position));
+        });
+
+        int[] order = new int[m];
+        for (int i = 0; i < m; i++) {
+            order[i] = edges[i];
+        }
+
+        return order;
+    }
+
+    private int maxPosition(int edge, int[] position) {
+        return Math.max(position[graph.getEndpoint0(edge)], position[graph.getEndpoint1(edge)]);
+    }
+
+    private int minPosition(int edge, int[] position) {
+        return Math.min(position[graph.getEndpoint0(edge)], position[graph.getEndpoint1(edge)]);
+    }
+
+    private int[] endpoints(int edge) {
+        int u = graph.getEndpoint0(edge);
+        int v = graph.getEndpoint1(edge);
+        return u == v ? new int[] {u} : new int[] {u, v};
+    }
+
+    /**
+     * @return the largest number of vertices in the frontier while the edges are decided in the order of this counter
+     */
+    public int getFrontierWidth() {
+        int width = 0;
+        int current = 0;
+        for (int i = 0; i < edgeOrder.length; i++) {
+            for (int v : endpoints(edgeOrder[i])) {
+                if (firstEdge[v] == i) {
+                    current++;
+                }
+            }
+            width = Math.max(width, current);
+            for (int v : endpoints(edgeOrder[i])) {
+                if (lastEdge[v] == i) {
+                    current--;
+                }
+            }
+        }
+
+        return width;
+    }
+
+    /**
+     * Counts the subsets of the edges that connect all vertices of the graph.
+     * @return the number of connected spanning subgraphs, or their total weight if the edges are weighted
+     */
+    public BigInteger count() {
+        int n = graph.getNodeCount();
+        int m = graph.getEdgeCount();
+        if (n <= 1) {
+            // Every subset of the loops is connected
+            BigInteger total = BigInteger.ONE;
+            for (int e = 0; e < m; e++) {
+                total = total.multiply(weight(present, e).add(weight(absent, e)));
+            }
+            return total;
+        }
+        for (int v = 0; v < n; v++) {
+            if (firstEdge[v] == -1) {
+                return BigInteger.ZERO;
+            }
+        }
+
+        // Number of vertices that have not entered the frontier before each edge
+        int[] remaining = new int[m + 1];
+        remaining[0] = n;
+        for (int i = 0; i < m; i++) {
+            remaining[i + 1] = remaining[i];
+            for (int v : endpoints(edgeOrder[i])) {
+                if (firstEdge[v] == i) {
+                    remaining[i + 1]--;
+                }
+            }
+        }
+
+        BigInteger result = BigInteger.ZERO;
+        int[] frontier = new int[0];
+        Map<String, BigInteger> states = new HashMap<>();
+        states.put("", BigInteger.ONE);
+
+        for (int i = 0; i < m; i++) {
+            int edge = edgeOrder[i];
+            int u = graph.getEndpoint0(edge);
+            int v = graph.getEndpoint1(edge);
+
+            // Add the vertices that enter the frontier, each as a new component
+            int[] entered = frontier;
+            for (int w : endpoints(edge)) {
+                if (firstEdge[w] == i) {
+                    entered = Arrays.copyOf(entered, entered.length + 1);
+                    entered[entered.length - 1] = w;
+                }
+            }
+            int uIndex = indexOf(entered, u);
+            int vIndex = indexOf(entered, v);
+
+            // Remove the vertices that leave the frontier after this edge
+            boolean[] leaves = new boolean[entered.length];
+            int leaving = 0;
+            for (int j = 0; j < entered.length; j++) {
+                if (lastEdge[entered[j]] == i) {
+                    leaves[j] = true;
+                    leaving++;
+                }
+            }
+            int[] next = new int[entered.length - leaving];
+            for (int j = 0, k = 0; j < entered.length; j++) {
+                if (!leaves[j]) {
+                    next[k++] = entered[j];
+                }
+            }
+
+            Map<String, BigInteger> nextStates = new HashMap<>();
+            for (Map.Entry<String, BigInteger> state : states.entrySet()) {
+                int[] labels = new int[entered.length];
+                String key = state.getKey();
+                for (int j = 0; j < key.length(); j++) {
+                    labels[j] = key.charAt(j);
+                }
+                for (int j = key.length(); j < entered.length; j++) {
+                    labels[j] = n + j;
+                }
+
+                // Leave the edge out
+                result = result.add(transition(labels, leaves, remaining[i + 1],
+                        multiply(state.getValue(), absent, edge), nextStates));
+
+                // Take the edge, which merges the components of its endpoints
+                int from = labels[uIndex];
+                int to   = labels[vIndex];
+                for (int j = 0; j < labels.length; j++) {
+                    if (labels[j] == from) {
+                        labels[j] = to;
+                    }
+                }
+                result = result.add(transition(labels, leaves, remaining[i + 1],
+                        multiply(state.getValue(), present, edge), nextStates));
+            }
+
+            states   = nextStates;
+            frontier = next;
+        }
+
+        return result;
+    }
+
+    private static BigInteger weight(BigInteger[] weights, int edge) {
+        return weights == null ? BigInteger.ONE : weights[edge];
+    }
+
+    private static BigInteger multiply(BigInteger count, BigInteger[] weights, int edge) {
+        return weights == null ? count : count.multiply(weights[edge]);
+    }
+
+    /**
+     * Removes the vertices that leave the frontier from a state and adds its count to the resulting state, unless a
+     * component is closed off.
+     * @param labels     component of every frontier vertex, including the vertices that leave
+     * @param leaves     whether each frontier vertex leaves
+     * @param remaining  number of vertices that have not entered the frontier yet
+     * @param count      number of partial subgraphs in the state
+     * @param nextStates states after this edge
+     * @return {@code count} if the partial subgraphs have become connected spanning subgraphs, and 0 otherwise
+     */
+    private BigInteger transition(int[] labels, boolean[] leaves, int remaining, BigInteger count,
+                                  Map<String, BigInteger> nextStates) {
+        int kept = 0;
+        for (int j = 0; j < labels.length; j++) {
+            if (leaves[j]) {
+                boolean closed = true;
+                for (int k = 0; k < labels.length && closed; k++) {
+                    closed = leaves[k] || labels[k] != labels[j];
+                }
+                if (closed) {
+                    // A component without frontier vertices is final, so it must contain all vertices
+                    boolean spanning = remaining == 0 && allLeaveWith(labels, leaves, labels[j]);
+                    return spanning ? count : BigInteger.ZERO;
+                }
+            } else {
+                kept++;
+            }
+        }
+
+        // Renumber the components in order of first appearance
+        char[] key = new char[kept];
+        int[] renumbered = new int[labels.length];
+        Arrays.fill(renumbered, -1);
+        int components = 0;
+        for (int j = 0, k = 0; j < labels.length; j++) {
+            if (!leaves[j]) {
+                int first = indexOfLabel(labels, labels[j]);
+                if (renumbered[first] == -1) {
+                    renumbered[first] = components++;
+                }
+                key[k++] = (char) renumbered[first];
+            }
+        }
+
+        nextStates.merge(new String(key), count, BigInteger::add);
+        return BigInteger.ZERO;
+    }
+
+    /**
+     * @return whether all frontier vertices leave and belong to component {@code label}
+     */
+    private boolean allLeaveWith(int[] labels, boolean[] leaves, int label) {
+        for (int j = 0; j < labels.length; j++) {
+            if (!leaves[j] || labels[j] != label) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private int indexOfLabel(int[] labels, int label) {
+        for (int j = 0; ; j++) {
+            if (labels[j] == label) {
+                return j;
+            }
+        }
+    }
+
+    private int indexOf(int[] vertices, int vertex) {
+        for (int j = 0; j < vertices.length; j++) {
+            if (vertices[j] == vertex) {
+                return j;
+            }
+        }
+
+        throw new IllegalStateException("Vertex " + vertex + " is not in the frontier.");
+    }
+}
@@ -0,0 +1,408 @@
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reduces a graph to smaller cores with the same number of connected spanning subgraphs, up to a known factor. Every
+ * edge carries the number of ways in which it is present and in which it is absent (see {@code CoreGraph}), and the
+ * following reductions are applied until none applies:
+ * <ul>
+ *     <li>A loop never affects connectivity, so it is removed and the factor is multiplied by its number of ways.</li>
+ *     <li>Two parallel edges are merged into one edge that is present if either of them is present.</li>
+ *     <li>A vertex with one edge is connected exactly when that edge is present, so the vertex is removed and the
+ *     factor is multiplied by the number of ways in which the edge is present.</li>
+ *     <li>A vertex with two edges, to two other vertices, is replaced by a single edge between those vertices, which
+ *     is present if both edges are present, and absent if exactly one of them is present. If both are absent, the
+ *     vertex is isolated, so these subgraphs are not counted.</li>
+ *     <li>A vertex without edges, in a graph with other vertices, makes the factor 0.</li>
+ * </ul>
+ * Afterwards, the graph is split into its blocks (biconnected components). A graph is connected exactly when all its
+ * blocks are, so the blocks are reduced separately, which removes the bridges between them as pendant edges. A
+ * block that can not be reduced or split any further becomes a core.
+ *
+ * Series and parallel reductions change the probability that an edge is present away from 1/2, so the cores are only
+ * suitable for exact counting. Without them, every edge of a core is an original edge, present in one way and absent
+ * in one way, and the cores are the blocks of the graph without pendant trees and loops, which can be estimated like
+ * any other graph. A block that has to be estimated therefore gets no series or parallel reduction, and is only
+ * smaller than the original graph by its loops, pendant trees and other blocks.
+ */
+public class GraphReducer {
+    private final CompactGraph graph;
+    private final boolean      mergeEdges;
+
+    private BigInteger factor = BigInteger.ONE;
+    private int loops     = 0;
+    private int pendants  = 0;
+    private int series    = 0;
+    private int parallels = 0;
+    private int splits    = 0;
+    private int merged    = 0;
+
+    /**
+     * @param graph graph to reduce
+     */
+    public GraphReducer(CompactGraph graph) {
+        this(graph, true);
+    }
+
+    /**
+     * @param graph      graph to reduce
+     * @param mergeEdges whether to apply series and parallel reductions. Without them, only loops and pendant
+     *                   vertices are removed and the graph is split into its blocks, which leaves every edge of the
+     *                   cores present in one way and absent in one way.
+     */
+    public GraphReducer(CompactGraph graph, boolean mergeEdges) {
+        this.graph      = graph;
+        this.mergeEdges = mergeEdges;
+    }
+
+    /**
+     * @return the factor and the cores of the reduced graph
+     */
+    public GraphReduction reduce() {
+        Piece whole = new Piece(graph.getNodeCount());
+        for (int node = 0; node < graph.getNodeCount(); node++) {
+            whole.nodeIds[node] = graph.getNodeId(node);
+        }
+        for (int edge = 0; edge < graph.getEdgeCount(); edge++) {
+            whole.addEdge(graph.getEndpoint0(edge), graph.getEndpoint1(edge), BigInteger.ONE, BigInteger.ONE,
+                    graph.getEdgeId(edge));
+        }
+
+        List<CoreGraph> cores = new ArrayList<>();
+        Deque<Piece> pieces = new ArrayDeque<>();
+        pieces.push(whole);
+        while (!pieces.isEmpty() && factor.signum() != 0) {
+            Piece piece = pieces.pop();
+            piece.reduce();
+            if (factor.signum() == 0) {
+                break;
+            }
+
+            List<Piece> blocks = piece.split();
+            if (blocks == null) {
+                // The piece is not connected
+                factor = BigInteger.ZERO;
+            } else if (blocks.size() == 1) {
+                cores.add(blocks.get(0).toCore());
+            } else if (blocks.size() > 1) {
+                splits++;
+                for (Piece block : blocks) {
+                    pieces.push(block);
+                }
+            }
+        }
+        if (factor.signum() == 0) {
+            cores.clear();
+        }
+
+        return new GraphReduction(factor, cores, loops, pendants, series, parallels, splits);
+    }
+
+    /**
+     * A multigraph that is being reduced, in which every pair of vertices has at most one edge if edges are merged.
+     */
+    private final class Piece {
+        private final String[] nodeIds;
+        private final boolean[] removed;
+        private final int[] degree;
+        private final List<List<Integer>> incident = new ArrayList<>();
+        private int nodeCount;
+
+        private final List<Integer>    endpoint0 = new ArrayList<>();
+        private final List<Integer>    endpoint1 = new ArrayList<>();
+        private final List<BigInteger> present   = new ArrayList<>();
+        private final List<BigInteger> absent    = new ArrayList<>();
+        private final List<String>     edgeIds   = new ArrayList<>();
+        private final List<Boolean>    alive     = new ArrayList<>();
+        // Edge between every pair of adjacent vertices
+        private final Map<Long, Integer> edgeBetween = new HashMap<>();
+
+        private Piece(int nodeCount) {
+            this.nodeIds   = new String[nodeCount];
+            this.removed   = new boolean[nodeCount];
+            this.degree    = new int[nodeCount];
+            this.nodeCount = nodeCount;
+            for (int node = 0; node < nodeCount; node++) {
+                incident.add(new ArrayList<>());
+            }
+        }
+
+        /**
+         * Adds an edge, which is removed if it is a loop and merged with the edge between its endpoints if there is
+         * one.
+         */
+        private void addEdge(int u, int v, BigInteger a, BigInteger b, String id) {
+            if (u == v) {
+                factor = factor.multiply(a.add(b));
+                loops++;
+                return;
+            }
+
+            long key = key(u, v);
+            Integer existing = mergeEdges ? edgeBetween.get(key) : null;
+            if (existing != null) {
+                // Present if either edge is present, absent if both are absent
+                BigInteger c = present.get(existing);
+                BigInteger d = absent.get(existing);
+                present.set(existing, a.multiply(c).add(a.multiply(d)).add(b.multiply(c)));
+                absent.set(existing, b.multiply(d));
+                edgeIds.set(existing, "merged" + merged++);
+                parallels++;
+                return;
+            }
+
+            int edge = endpoint0.size();
+            endpoint0.add(u);
+            endpoint1.add(v);
+            present.add(a);
+            absent.add(b);
+            edgeIds.add(id);
+            alive.add(true);
+            incident.get(u).add(edge);
+            incident.get(v).add(edge);
+            degree[u]++;
+            degree[v]++;
+            if (mergeEdges) {
+                edgeBetween.put(key, edge);
+            }
+        }
+
+        private void removeEdge(int edge) {
+            int u = endpoint0.get(edge);
+            int v = endpoint1.get(edge);
+            alive.set(edge, false);
+            degree[u]--;
+            degree[v]--;
+            edgeBetween.remove(key(u, v));
+        }
+
+        private void removeNode(int node) {
+            removed[node] = true;
+            nodeCount--;
+        }
+
+        private int other(int edge, int node) {
+            int u = endpoint0.get(edge);
+            return u == node ? endpoint1.get(edge) : u;
+        }
+
+        /**
+         * @return the first {@code count} edges of {@code node} that have not been removed
+         */
+        private int[] edgesOf(int node, int count) {
+            List<Integer> list = incident.get(node);
+            if (list.size() > 2 * degree[node]) {
+                // Drop the removed edges, so a vertex whose neighbours are reduced one by one is not scanned again
+                list.removeIf(edge -> !alive.get(edge));
+            }
+
+            int[] edges = new int[count];
+            int found = 0;
+            for (int i = 0; i < list.size() && found < count; i++) {
+                if (alive.get(list.get(i))) {
+                    edges[found++] = list.get(i);
+                }
+            }
+
+            return edges;
+        }
+
+        /**
+         * Removes pendant vertices, and vertices with two edges if edges are merged, until there are none left, and
+         * sets the factor to 0 if a vertex becomes isolated.
+         */
+        private void reduce() {
+            Deque<Integer> queue = new ArrayDeque<>();
+            for (int node = 0; node < removed.length; node++) {
+                queue.add(node);
+            }
+
+            while (!queue.isEmpty() && nodeCount > 1) {
+                int node = queue.poll();
+                if (removed[node]) {
+                    continue;
+                }
+
+                if (degree[node] == 0) {
+                    factor = BigInteger.ZERO;
+                    return;
+                } else if (degree[node] == 1) {
+                    int edge = edgesOf(node, 1)[0];
+                    int u = other(edge, node);
+                    factor = factor.multiply(present.get(edge));
+                    removeEdge(edge);
+                    removeNode(node);
+                    pendants++;
+                    queue.add(u);
+                } else if (degree[node] == 2 && mergeEdges) {
+                    // The two neighbours are distinct, since parallel edges have been merged
+                    int[] edges = edgesOf(node, 2);
+                    int u = other(edges[0], node);
+                    int w = other(edges[1], node);
+                    BigInteger a1 = present.get(edges[0]);
+                    BigInteger b1 = absent.get(edges[0]);
+                    BigInteger a2 = present.get(edges[1]);
+                    BigInteger b2 = absent.get(edges[1]);
+                    removeEdge(edges[0]);
+                    removeEdge(edges[1]);
+                    removeNode(node);
+                    series++;
+                    addEdge(u, w, a1.multiply(a2), a1.multiply(b2).add(b1.multiply(a2)), "merged" + merged++);
+                    queue.add(u);
+                    queue.add(w);
+                }
+            }
+        }
+
+        /**
+         * Splits this piece into its blocks with an iterative version of Tarjan's algorithm.
+         * @return the blocks, which is a list with only this piece if it is a single block, or {@code null} if this
+         * piece is not connected
+         */
+        private List<Piece> split() {
+            int n = removed.length;
+            List<Piece> blocks = new ArrayList<>();
+            int start = -1;
+            for (int node = 0; node < n && start < 0; node++) {
+                if (!removed[node]) {
+                    start = node;
+                }
+            }
+            if (start < 0 || nodeCount == 1) {
+                return blocks;
+            }
+
+            int[] discovery  = new int[n];
+            int[] low        = new int[n];
+            int[] next       = new int[n];
+            int[] parentEdge = new int[n];
+            int[] stack      = new int[n];
+            Arrays.fill(discovery, -1);
+            Deque<Integer> edgeStack = new ArrayDeque<>();
+
+            int time = 0;
+            int size = 0;
+            discovery[start] = low[start] = time++;
+            parentEdge[start] = -1;
+            stack[size++] = start;
+            while (size > 0) {
+                int node = stack[size - 1];
+                List<Integer> edges = incident.get(node);
+                if (next[node] < edges.size()) {
+                    int edge = edges.get(next[node]++);
+                    if (!alive.get(edge) || edge == parentEdge[node]) {
+                        continue;
+                    }
+                    int neighbour = other(edge, node);
+                    if (discovery[neighbour] < 0) {
+                        edgeStack.push(edge);
+                        parentEdge[neighbour] = edge;
+                        discovery[neighbour] = low[neighbour] = time++;
+                        stack[size++] = neighbour;
+                    } else if (discovery[neighbour] < discovery[node]) {
+                        // Back edge to an ancestor
+                        edgeStack.push(edge);
+                        low[node] = Math.min(low[node], discovery[neighbour]);
+                    }
+                } else {
+                    size--;
+                    if (size > 0) {
+                        int parent = stack[size - 1];
+                        low[parent] = Math.min(low[parent], low[node]);
+                        if (low[node] >= discovery[parent]) {
+                            // The parent separates the subtree of node from the rest, so the edges on the stack up to
+                            // the tree edge between them form a block
+                            List<Integer> block = new ArrayList<>();
+                            int edge;
+                            do {
+                                edge = edgeStack.pop();
+                                block.add(edge);
+                            } while (edge != parentEdge[node]);
+                            blocks.add(block(block));
+                        }
+                    }
+                }
+            }
+
+            if (time < nodeCount) {
+                return null;
+            }
+            if (blocks.size() == 1) {
+                blocks.set(0, this);
+            }
+
+            return blocks;
+        }
+
+        /**
+         * @param edges edges of a block of this piece
+         * @return the block as a new piece
+         */
+        private Piece block(List<Integer> edges) {
+            Map<Integer, Integer> index = new HashMap<>();
+            for (int edge : edges) {
+                index.putIfAbsent(endpoint0.get(edge), index.size());
+                index.putIfAbsent(endpoint1.get(edge), index.size());
+            }
+
+            Piece block = new Piece(index.size());
+            for (Map.Entry<Integer, Integer> entry : index.entrySet()) {
+                block.nodeIds[entry.getValue()] = nodeIds[entry.getKey()];
+            }
+            for (int edge : edges) {
+                block.addEdge(index.get(endpoint0.get(edge)), index.get(endpoint1.get(edge)), present.get(edge),
+                        absent.get(edge), edgeIds.get(edge));
+            }
+
+            return block;
+        }
+
+        /**
+         * @return this piece as a core, with its remaining vertices and edges renumbered
+         */
+        private CoreGraph toCore() {
+            int[] index = new int[removed.length];
+            String[] coreNodeIds = new String[nodeCount];
+            int nodes = 0;
+            for (int node = 0; node < removed.length; node++) {
+                if (!removed[node]) {
+                    coreNodeIds[nodes] = nodeIds[node];
+                    index[node] = nodes++;
+                }
+            }
+
+            List<Integer> edges = new ArrayList<>();
+            for (int edge = 0; edge < alive.size(); edge++) {
+                if (alive.get(edge)) {
+                    edges.add(edge);
+                }
+            }
+            int[] coreEndpoint0 = new int[edges.size()];
+            int[] coreEndpoint1 = new int[edges.size()];
+            String[] coreEdgeIds = new String[edges.size()];
+            BigInteger[] corePresent = new BigInteger[edges.size()];
+            BigInteger[] coreAbsent  = new BigInteger[edges.size()];
+            for (int e = 0; e < edges.size(); e++) {
+                int edge = edges.get(e);
+                coreEndpoint0[e] = index[endpoint0.get(edge)];
+                coreEndpoint1[e] = index[endpoint1.get(edge)];
+                coreEdgeIds[e]   = edgeIds.get(edge);
+                corePresent[e]   = present.get(edge);
+                coreAbsent[e]    = absent.get(edge);
+            }
+
+            CompactGraph core = new CompactGraph(nodes, coreEndpoint0, coreEndpoint1, coreNodeIds, coreEdgeIds);
+            return new CoreGraph(core, corePresent, coreAbsent);
+        }
+    }
+
+    private static long key(int u, int v) {
+        return u < v ? ((long) u << 32) | v : ((long) v << 32) | u;
+    }
+}
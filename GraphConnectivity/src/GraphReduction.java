@@ -0,0 +1,83 @@
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * Result of {@code GraphReducer.reduce()}: the number of connected spanning subgraphs of the original graph is the
+ * factor times the product of the weighted numbers of connected spanning subgraphs of the cores.
+ */
+public class GraphReduction {
+    private final BigInteger      factor;
+    private final List<CoreGraph> cores;
+    private final int             loops;
+    private final int             pendants;
+    private final int             series;
+    private final int             parallels;
+    private final int             splits;
+
+    /**
+     * @param factor    factor of the reductions
+     * @param cores     pieces that could not be reduced further
+     * @param loops     number of loops removed
+     * @param pendants  number of pendant edges removed, including bridges
+     * @param series    number of series reductions
+     * @param parallels number of parallel reductions
+     * @param splits    number of times a piece was split into its blocks
+     */
+    public GraphReduction(BigInteger factor, List<CoreGraph> cores, int loops, int pendants, int series,
+                          int parallels, int splits) {
+        this.factor    = factor;
+        this.cores     = cores;
+        this.loops     = loops;
+        this.pendants  = pendants;
+        this.series    = series;
+        this.parallels = parallels;
+        this.splits    = splits;
+    }
+
+    /**
+     * @return the factor of the reductions, which is 0 if the graph is not connected
+     */
+    public BigInteger getFactor() {
+        return factor;
+    }
+
+    public List<CoreGraph> getCores() {
+        return cores;
+    }
+
+    /**
+     * @return the total number of edges of the cores
+     */
+    public int getCoreEdgeCount() {
+        int edges = 0;
+        for (CoreGraph core : cores) {
+            edges += core.getGraph().getEdgeCount();
+        }
+
+        return edges;
+    }
+
+    /**
+     * Counts the connected spanning subgraphs of the original graph exactly, by counting those of every core with a
+     * {@code FrontierCounter}.
+     * @return the number of connected spanning subgraphs of the original graph
+     */
+    public BigInteger countSpanningSubgraphs() {
+        BigInteger count = factor;
+        for (CoreGraph core : cores) {
+            if (count.signum() == 0) {
+                break;
+            }
+            count = count.multiply(core.countSpanningSubgraphs());
+        }
+
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return cores.size() + " cores with " + getCoreEdgeCount() + " edges left after removing " + loops +
+                " loops and " + pendants + " pendant edges, " + series + " series and " + parallels +
+                " parallel reductions and " + splits + " splits into blocks";
+    }
+}
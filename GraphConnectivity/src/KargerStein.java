@@ -0,0 +1,269 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parallel implementation of the recursive contraction algorithm of Karger and Stein. Every level of the recursion
+ * works on its own compact snapshot of the contracted graph, which only contains the edges that survived the
+ * contraction (relabelled to the new super vertices), together with the index of each edge in the original graph.
+ * The two recursive branches, as well as the independent repetitions, are run as fork/join tasks.
+ *
+ * Every task receives its own {@code SplittableRandom}, which is split off from its parent before any task is forked.
+ * The cuts that are found therefore only depend on the seed of the random generator that is passed in, not on how the
+ * tasks are scheduled.
+ *
+ * Cuts with more edges than a given maximum are discarded as soon as the contraction produces them, and are only
+ * counted as rejected by the {@code CutTable} they would have been added to.
+ */
+public class KargerStein {
+    // Snapshots with fewer edges than this are handled sequentially, as forking would cost more than it gains
+    private static final int SEQUENTIAL_THRESHOLD = 512;
+
+    private final ForkJoinPool pool;
+
+    public KargerStein() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public KargerStein(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Runs the recursive contraction algorithm {@code repetitions} times on {@code graph}.
+     * @param graph       input graph
+     * @param alpha       factor that determines how far the graph is contracted at every level of the recursion:
+     *                    from {@code n} to {@code n / 2^(1 / (2 * alpha))} vertices
+     * @param repetitions number of independent runs
+     * @param maxCutSize  maximum number of edges of the cuts to keep
+     * @param random      source of randomness
+     * @return the distinct cuts found with at most {@code maxCutSize} edges, with edges numbered as in {@code graph}
+     */
+    public CutTable enumerateCuts(CompactGraph graph, double alpha, int repetitions, int maxCutSize,
+                                  SplittableRandom random) {
+        CutTable cuts = new CutTable();
+        for (CutTable repetition : enumerateCutsPerRepetition(graph, alpha, repetitions, maxCutSize, random)) {
+            cuts.addAll(repetition);
+        }
+
+        return cuts;
+    }
+
+    /**
+     * Runs the recursive contraction algorithm {@code repetitions} times on {@code graph} and returns the cuts found
+     * by every repetition separately. Calling this method twice with {@code r1} and {@code r2} repetitions gives the
+     * same cuts as calling it once with {@code r1 + r2} repetitions, if the same random generator is used.
+     * @param graph       input graph
+     * @param alpha       factor as in {@code enumerateCuts}
+     * @param repetitions number of independent runs
+     * @param maxCutSize  maximum number of edges of the cuts to keep
+     * @param random      source of randomness
+     * @return for every repetition, in order, the distinct cuts it found with at most {@code maxCutSize} edges
+     */
+    public List<CutTable> enumerateCutsPerRepetition(CompactGraph graph, double alpha, int repetitions,
+                                                     int maxCutSize, SplittableRandom random) {
+        Snapshot snapshot = Snapshot.of(graph);
+
+        List<ContractionTask> tasks = new ArrayList<>();
+        for (int i = 0; i < repetitions; i++) {
+            tasks.add(new ContractionTask(snapshot, alpha, maxCutSize, random.split()));
+        }
+
+        return pool.invoke(new RecursiveTask<List<CutTable>>() {
+            @Override
+            protected List<CutTable> compute() {
+                List<CutTable> cuts = new ArrayList<>();
+                for (ContractionTask task : ForkJoinTask.invokeAll(tasks)) {
+                    cuts.add(task.join());
+                }
+
+                return cuts;
+            }
+        });
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Returns the number of vertices to contract a graph on {@code n} vertices down to at the next level of the
+     * recursion. It is always smaller than {@code n}, to guarantee progress, and at least 2.
+     * @param n     current number of vertices
+     * @param alpha factor as in {@code enumerateCuts}
+     * @return the target number of vertices
+     */
+    private static int targetSize(int n, double alpha) {
+        int size = (int) (n / Math.pow(2, 1 / (2 * alpha)));
+        return Math.max(2, Math.min(n - 1, size));
+    }
+
+    private static class ContractionTask extends RecursiveTask<CutTable> {
+        private static final long serialVersionUID = 1L;
+
+        private final Snapshot snapshot;
+        private final double alpha;
+        private final int maxCutSize;
+        private final SplittableRandom random;
+
+        private ContractionTask(Snapshot snapshot, double alpha, int maxCutSize, SplittableRandom random) {
+            this.snapshot   = snapshot;
+            this.alpha      = alpha;
+            this.maxCutSize = maxCutSize;
+            this.random     = random;
+        }
+
+        @Override
+        protected CutTable compute() {
+            if (snapshot.nodeCount <= 2 || snapshot.getEdgeCount() == 0) {
+                // The remaining edges form the cut. If there are none, the graph is not connected.
+                CutTable cuts = new CutTable();
+                addCut(snapshot, cuts);
+                return cuts;
+            }
+
+            int size = targetSize(snapshot.nodeCount, alpha);
+            if (snapshot.getEdgeCount() < SEQUENTIAL_THRESHOLD) {
+                CutTable cuts = new CutTable();
+                contractSequentially(snapshot, size, random, cuts);
+                contractSequentially(snapshot, size, random, cuts);
+                return cuts;
+            }
+
+            ContractionTask left  = new ContractionTask(snapshot.contract(size, random), alpha, maxCutSize,
+                    random.split());
+            ContractionTask right = new ContractionTask(snapshot.contract(size, random), alpha, maxCutSize,
+                    random.split());
+            left.fork();
+            CutTable cuts = right.compute();
+            cuts.addAll(left.join());
+
+            return cuts;
+        }
+
+        private void contractSequentially(Snapshot graph, int size, SplittableRandom random, CutTable cuts) {
+            Snapshot contracted = graph.contract(size, random);
+
+            if (contracted.nodeCount <= 2 || contracted.getEdgeCount() == 0) {
+                addCut(contracted, cuts);
+                return;
+            }
+
+            int next = targetSize(contracted.nodeCount, alpha);
+            contractSequentially(contracted, next, random, cuts);
+            contractSequentially(contracted, next, random, cuts);
+        }
+
+        private void addCut(Snapshot leaf, CutTable cuts) {
+            if (leaf.getEdgeCount() <= maxCutSize) {
+                cuts.add(leaf.originalEdge);
+            } else {
+                cuts.reject();
+            }
+        }
+    }
+
+    /**
+     * Immutable snapshot of a contracted graph. Edge {@code i} connects the super vertices {@code endpoint0[i]} and
+     * {@code endpoint1[i]} and is edge {@code originalEdge[i]} of the original graph. Edges within a super vertex are
+     * not stored, and the original edge indices are kept in increasing order.
+     */
+    private static final class Snapshot {
+        private final int   nodeCount;
+        private final int[] endpoint0;
+        private final int[] endpoint1;
+        private final int[] originalEdge;
+
+        private Snapshot(int nodeCount, int[] endpoint0, int[] endpoint1, int[] originalEdge) {
+            this.nodeCount    = nodeCount;
+            this.endpoint0    = endpoint0;
+            this.endpoint1    = endpoint1;
+            this.originalEdge = originalEdge;
+        }
+
+        private static Snapshot of(CompactGraph graph) {
+            int m = graph.getEdgeCount();
+            int[] endpoint0    = new int[m];
+            int[] endpoint1    = new int[m];
+            int[] originalEdge = new int[m];
+
+            int size = 0;
+            for (int edge = 0; edge < m; edge++) {
+                // Loops are never part of a cut
+                if (graph.getEndpoint0(edge) != graph.getEndpoint1(edge)) {
+                    endpoint0[size]    = graph.getEndpoint0(edge);
+                    endpoint1[size]    = graph.getEndpoint1(edge);
+                    originalEdge[size] = edge;
+                    size++;
+                }
+            }
+
+            return new Snapshot(graph.getNodeCount(), Arrays.copyOf(endpoint0, size), Arrays.copyOf(endpoint1, size),
+                    Arrays.copyOf(originalEdge, size));
+        }
+
+        private int getEdgeCount() {
+            return endpoint0.length;
+        }
+
+        /**
+         * Contracts uniformly random edges until {@code size} super vertices remain (or no edges are left) and returns
+         * a snapshot of the result. This snapshot is not modified.
+         * @param size   number of super vertices to contract down to
+         * @param random source of randomness
+         * @return a snapshot of the contracted graph
+         */
+        private Snapshot contract(int size, SplittableRandom random) {
+            int m = getEdgeCount();
+            UnionFind superVertices = new UnionFind(nodeCount);
+
+            int[] order = new int[m];
+            for (int i = 0; i < m; i++) {
+                order[i] = i;
+            }
+
+            for (int i = 0; i < m && superVertices.getCount() > size; i++) {
+                int j = i + random.nextInt(m - i);
+                int edge = order[j];
+                order[j] = order[i];
+                order[i] = edge;
+
+                superVertices.union(endpoint0[edge], endpoint1[edge]);
+            }
+
+            // Number the super vertices 0, ..., k-1
+            int[] label = new int[nodeCount];
+            Arrays.fill(label, -1);
+            int k = 0;
+            for (int v = 0; v < nodeCount; v++) {
+                int root = superVertices.find(v);
+                if (label[root] == -1) {
+                    label[root] = k++;
+                }
+            }
+
+            // Copy only the edges between different super vertices
+            int[] newEndpoint0    = new int[m];
+            int[] newEndpoint1    = new int[m];
+            int[] newOriginalEdge = new int[m];
+            int edges = 0;
+            for (int edge = 0; edge < m; edge++) {
+                int u = label[superVertices.find(endpoint0[edge])];
+                int v = label[superVertices.find(endpoint1[edge])];
+                if (u != v) {
+                    newEndpoint0[edges]    = u;
+                    newEndpoint1[edges]    = v;
+                    newOriginalEdge[edges] = originalEdge[edge];
+                    edges++;
+                }
+            }
+
+            return new Snapshot(k, Arrays.copyOf(newEndpoint0, edges), Arrays.copyOf(newEndpoint1, edges),
+                    Arrays.copyOf(newOriginalEdge, edges));
+        }
+    }
+}
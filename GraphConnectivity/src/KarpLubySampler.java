@@ -0,0 +1,476 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The estimator of Karp and Luby for the number of satisfying truth assignments of a compiled DNF formula.
+ *
+ * A sample picks a clause {@code C} with probability proportional to {@code 2^(n - |C|)}, the number of truth
+ * assignments that satisfy it, picks a uniformly random assignment satisfying {@code C}, and returns one over the
+ * number of clauses satisfied by that assignment. The average of the samples, times the sum of the clause weights, is
+ * an unbiased estimate of the number of satisfying truth assignments.
+ *
+ * The clauses are drawn from an alias table that is built once. To avoid overflow, the weights are stored relative to
+ * the weight of the largest clause, as {@code 2^(minLiterals - |C|)}, and the sum of the clause weights is only
+ * applied to the average at the end, with the exponent kept separately. The fraction of satisfying truth assignments
+ * and the base 2 logarithm of their number can therefore be estimated with full relative precision for any number of
+ * variables, even where the number itself does not fit in a double. Every thread has its own random generator, split
+ * off from the generator of this sampler, and its own assignment buffer, so samples can be drawn concurrently.
+ *
+ * The samples can also be spread over a fork/join pool. The sample budget is then split into one chunk per thread of
+ * the pool, every chunk gets its own generator, split off in chunk order before any task is started, and the sums of
+ * the chunks are added in chunk order. For a given seed and pool size, the estimate therefore does not depend on how
+ * the chunks are scheduled.
+ *
+ * Instead of the worst-case number of samples, the samples can be drawn until the stopping rule of Dagum, Karp, Luby
+ * and Ross is met, which adapts to the actual expected value of a sample. The statistics of the samples are kept with
+ * {@code SampleStatistics}, from which a confidence interval around the estimate is derived. Alternatively, the
+ * self-adjusting coverage algorithm of Karp, Luby and Madras can be used, which replaces counting all clauses
+ * satisfied by a sample by checking random clauses until one is satisfied.
+ */
+public class KarpLubySampler {
+    private final CompiledDNFFormula formula;
+    private final AliasTable clauseTable;
+    // The sum of the clause weights is clauseTable.getTotal() * 2^(n - minLiterals)
+    private final int        minLiterals;
+
+    private final ForkJoinPool pool;
+    private final SplittableRandom seeds;
+    private final ThreadLocal<SplittableRandom> random;
+    private final ThreadLocal<long[]> assignment;
+
+    /**
+     * @param formula compiled formula, with at least one clause
+     * @param random  generator from which the generators of all threads are split
+     */
+    public KarpLubySampler(CompiledDNFFormula formula, SplittableRandom random) {
+        this(formula, random, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param formula compiled formula, with at least one clause
+     * @param random  generator from which the generators of all threads are split
+     * @param pool    pool in which the samples are drawn by the parallel methods
+     */
+    public KarpLubySampler(CompiledDNFFormula formula, SplittableRandom random, ForkJoinPool pool) {
+        int k = formula.getClauseCount();
+        if (k == 0) {
+            throw new IllegalArgumentException("A Karp-Luby sampler needs at least one clause.");
+        }
+
+        int min = Integer.MAX_VALUE;
+        for (int c = 0; c < k; c++) {
+            min = Math.min(min, formula.getClauseSize(c));
+        }
+
+        double[] weights = new double[k];
+        for (int c = 0; c < k; c++) {
+            weights[c] = Math.scalb(1.0, min - formula.getClauseSize(c));
+        }
+
+        this.formula     = formula;
+        this.clauseTable = new AliasTable(weights);
+        this.minLiterals = min;
+
+        this.pool       = pool;
+        this.seeds      = random;
+        this.random     = ThreadLocal.withInitial(this::splitRandom);
+        this.assignment = ThreadLocal.withInitial(formula::newAssignment);
+    }
+
+    private SplittableRandom splitRandom() {
+        synchronized (seeds) {
+            return seeds.split();
+        }
+    }
+
+    /**
+     * Draws a single sample, with the random generator of the current thread.
+     * @return one over the number of clauses satisfied by a random satisfying assignment
+     */
+    public double sample() {
+        return sample(random.get(), assignment.get());
+    }
+
+    /**
+     * Draws a single sample.
+     * @param random source of randomness
+     * @param buffer buffer for the truth assignment, as returned by {@code CompiledDNFFormula.newAssignment()}
+     * @return one over the number of clauses satisfied by a random satisfying assignment
+     */
+    public double sample(SplittableRandom random, long[] buffer) {
+        int clause = clauseTable.next(random);
+        formula.randomize(buffer, random);
+        formula.satisfy(clause, buffer);
+
+        return 1.0 / formula.countSatisfiedClauses(buffer);
+    }
+
+    /**
+     * Averages a number of samples, drawn with the random generator of the current thread.
+     * @param samples number of samples
+     * @return the average of the samples
+     */
+    public double average(long samples) {
+        return collect(samples).getMean();
+    }
+
+    /**
+     * Averages a number of samples, drawn in parallel in the pool of this sampler.
+     * @param samples number of samples
+     * @param random  generator from which the generators of the chunks are split
+     * @return the average of the samples
+     */
+    public double averageInParallel(long samples, SplittableRandom random) {
+        return collectInParallel(samples, random).getMean();
+    }
+
+    /**
+     * Draws a number of samples with the random generator of the current thread.
+     * @param samples number of samples
+     * @return the statistics of the samples
+     */
+    public SampleStatistics collect(long samples) {
+        return collect(samples, random.get(), assignment.get());
+    }
+
+    /**
+     * Draws a number of samples in parallel in the pool of this sampler. The statistics of the chunks are merged in
+     * chunk order.
+     * @param samples number of samples
+     * @param random  generator from which the generators of the chunks are split
+     * @return the statistics of the samples
+     */
+    public SampleStatistics collectInParallel(long samples, SplittableRandom random) {
+        int chunks = (int) Math.max(1, Math.min(samples, pool.getParallelism()));
+
+        List<RecursiveTask<SampleStatistics>> tasks = new ArrayList<>();
+        for (int i = 0; i < chunks; i++) {
+            // The first samples % chunks chunks take one extra sample
+            long chunkSamples = samples / chunks + (i < samples % chunks ? 1 : 0);
+            SplittableRandom chunkRandom = random.split();
+            tasks.add(new RecursiveTask<SampleStatistics>() {
+                @Override
+                protected SampleStatistics compute() {
+                    return collect(chunkSamples, chunkRandom, formula.newAssignment());
+                }
+            });
+        }
+
+        return pool.invoke(new RecursiveTask<SampleStatistics>() {
+            @Override
+            protected SampleStatistics compute() {
+                SampleStatistics statistics = new SampleStatistics();
+                for (RecursiveTask<SampleStatistics> task : ForkJoinTask.invokeAll(tasks)) {
+                    statistics.merge(task.join());
+                }
+
+                return statistics;
+            }
+        });
+    }
+
+    private SampleStatistics collect(long samples, SplittableRandom random, long[] buffer) {
+        SampleStatistics statistics = new SampleStatistics();
+        for (long i = 0; i < samples; i++) {
+            statistics.add(sample(random, buffer));
+        }
+
+        return statistics;
+    }
+
+    /**
+     * Draws samples until their sum reaches the threshold of the stopping rule of Dagum, Karp, Luby and Ross. As all
+     * samples lie between 0 and 1, the threshold divided by the number of samples drawn is then within a factor
+     * {@code 1 +- epsilon} of their expected value with probability at least {@code 1 - delta}. The expected number of
+     * samples is inversely proportional to that expected value, which is at least {@code 1 / k}, so this never needs
+     * more than about {@code k / epsilon^2} samples, against {@code k^2 / epsilon^2} for the worst-case bound.
+     * @param epsilon relative error
+     * @param delta   probability that the relative error is exceeded
+     * @return the statistics of the samples
+     */
+    private SampleStatistics collectUntilStopped(double epsilon, double delta) {
+        if (epsilon <= 0 || delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("The stopping rule needs epsilon > 0 and 0 < delta < 1. Got: " +
+                    "epsilon = " + epsilon + ", delta = " + delta + ".");
+        }
+
+        double threshold = getStoppingThreshold(epsilon, delta);
+        SplittableRandom random = this.random.get();
+        long[] buffer = assignment.get();
+
+        SampleStatistics statistics = new SampleStatistics();
+        while (statistics.getSum() < threshold) {
+            statistics.add(sample(random, buffer));
+        }
+
+        return statistics;
+    }
+
+    /**
+     * @param epsilon relative error
+     * @param delta   probability that the relative error is exceeded
+     * @return the threshold {@code 1 + (1 + epsilon) 4(e - 2) ln(2 / delta) / epsilon^2} of the stopping rule
+     */
+    private static double getStoppingThreshold(double epsilon, double delta) {
+        return 1 + (1 + epsilon) * 4 * (Math.E - 2) * Math.log(2 / delta) / (epsilon * epsilon);
+    }
+
+    /**
+     * Estimates the fraction of all truth assignments that satisfy the formula, together with a confidence interval.
+     * With the stopping rule, the interval is the one that the rule guarantees around its estimate; otherwise it is
+     * the empirical Bernstein interval around the mean of the samples.
+     * @param epsilon   relative error
+     * @param delta     probability that the relative error is exceeded, and that the fraction lies outside the
+     *                  confidence interval
+     * @param stopEarly whether to stop as soon as the stopping rule of Dagum, Karp, Luby and Ross is satisfied,
+     *                  instead of drawing the {@code 4(k - 1)^2 / epsilon^2} samples of the original algorithm
+     * @return the estimated fraction of satisfying truth assignments
+     */
+    public Estimate estimateFractionOfSatisfyingTruthAssignments(double epsilon, double delta, boolean stopEarly) {
+        if (stopEarly) {
+            SampleStatistics statistics = collectUntilStopped(epsilon, delta);
+            // The stopping rule guarantees |value - mu| <= epsilon mu with probability 1 - delta, which puts the
+            // expected value mu in [value / (1 + epsilon), value / (1 - epsilon)], and the fraction in the same
+            // interval around the scaled value
+            double fraction = scale(getStoppingThreshold(epsilon, delta) / statistics.getCount(), 0);
+            double upper = epsilon < 1 ? fraction / (1 - epsilon) : 1;
+            return toEstimate(fraction, fraction / (1 + epsilon), upper, delta, statistics.getCount());
+        }
+
+        SampleStatistics statistics = collect(getSampleCount(epsilon));
+        return toEstimate(statistics, delta);
+    }
+
+    /**
+     * Estimates the fraction of all truth assignments that satisfy the formula, together with a confidence interval,
+     * with the {@code 4(k - 1)^2 / epsilon^2} samples of the original algorithm drawn in parallel.
+     * @param epsilon relative error
+     * @param delta   probability that the fraction lies outside the confidence interval
+     * @param random  generator from which the generators of the chunks are split
+     * @return the estimated fraction of satisfying truth assignments
+     */
+    public Estimate estimateFractionOfSatisfyingTruthAssignmentsInParallel(double epsilon, double delta,
+                                                                           SplittableRandom random) {
+        SampleStatistics statistics = collectInParallel(getSampleCount(epsilon), random);
+        return toEstimate(statistics, delta);
+    }
+
+    /**
+     * Turns the mean of the samples into an estimate of the fraction of satisfying truth assignments, with the
+     * empirical Bernstein confidence interval around that mean.
+     * @param statistics statistics of the samples
+     * @param delta      probability that the expected value lies outside the confidence interval
+     * @return the estimated fraction of satisfying truth assignments
+     */
+    private Estimate toEstimate(SampleStatistics statistics, double delta) {
+        double mean = statistics.getMean();
+        double halfWidth = statistics.getHalfWidth(delta);
+
+        return toEstimate(scale(mean, 0), scale(mean - halfWidth, 0), scale(mean + halfWidth, 0), delta,
+                statistics.getCount());
+    }
+
+    /**
+     * Builds an estimate of the fraction of satisfying truth assignments, with the estimate and the confidence
+     * interval clamped to [0, 1], as the fraction can not lie outside it.
+     * @param fraction    estimated fraction
+     * @param lower       lower end of the confidence interval
+     * @param upper       upper end of the confidence interval
+     * @param delta       probability that the fraction lies outside the confidence interval
+     * @param sampleCount number of samples used
+     * @return the estimate
+     */
+    private static Estimate toEstimate(double fraction, double lower, double upper, double delta, long sampleCount) {
+        return new Estimate(clamp(fraction), clamp(lower), clamp(upper), delta, sampleCount);
+    }
+
+    /**
+     * @param fraction a fraction
+     * @return {@code fraction} clamped to [0, 1]
+     */
+    private static double clamp(double fraction) {
+        return Math.max(0, Math.min(1, fraction));
+    }
+
+    /**
+     * Estimates the number of satisfying truth assignments with the {@code 4(k - 1)^2 / epsilon^2} samples of the
+     * original algorithm, where {@code k} is the number of clauses.
+     * @param epsilon relative error
+     * @return the estimated number of satisfying truth assignments
+     */
+    public double approximateNumberOfSatisfyingTruthAssignments(double epsilon) {
+        return scale(average(getSampleCount(epsilon)), formula.getVariableCount());
+    }
+
+    /**
+     * Estimates the number of satisfying truth assignments as {@code approximateNumberOfSatisfyingTruthAssignments},
+     * but draws the samples in parallel.
+     * @param epsilon relative error
+     * @param random  generator from which the generators of the chunks are split
+     * @return the estimated number of satisfying truth assignments
+     */
+    public double approximateNumberOfSatisfyingTruthAssignmentsInParallel(double epsilon, SplittableRandom random) {
+        return scale(averageInParallel(getSampleCount(epsilon), random), formula.getVariableCount());
+    }
+
+    /**
+     * Estimates the number of satisfying truth assignments with the given estimator. The basic Karp-Luby estimator
+     * always uses the sample count of the original algorithm, which gives a probability of failure of at most 1/4.
+     * @param epsilon   relative error
+     * @param delta     probability that the relative error is exceeded, not used by the basic estimator
+     * @param estimator estimator to use
+     * @return the estimated number of satisfying truth assignments
+     */
+    public double approximateNumberOfSatisfyingTruthAssignments(double epsilon, double delta,
+                                                                DNFEstimator estimator) {
+        return scale(estimateMean(epsilon, delta, estimator), formula.getVariableCount());
+    }
+
+    /**
+     * Estimates the fraction of all truth assignments that satisfy the formula. Unlike the number of satisfying
+     * truth assignments, this does not overflow for formulas with more than about 1000 variables.
+     * @param epsilon   relative error
+     * @param delta     probability that the relative error is exceeded, not used by the basic estimator
+     * @param estimator estimator to use
+     * @return the estimated fraction of satisfying truth assignments
+     */
+    public double approximateFractionOfSatisfyingTruthAssignments(double epsilon, double delta,
+                                                                  DNFEstimator estimator) {
+        return scale(estimateMean(epsilon, delta, estimator), 0);
+    }
+
+    /**
+     * Estimates the fraction of all truth assignments that satisfy the formula, with the basic Karp-Luby estimator
+     * and the samples drawn in parallel.
+     * @param epsilon relative error
+     * @param random  generator from which the generators of the chunks are split
+     * @return the estimated fraction of satisfying truth assignments
+     */
+    public double approximateFractionOfSatisfyingTruthAssignmentsInParallel(double epsilon, SplittableRandom random) {
+        return scale(averageInParallel(getSampleCount(epsilon), random), 0);
+    }
+
+    /**
+     * Estimates the base 2 logarithm of the number of satisfying truth assignments, which is finite for any number of
+     * variables.
+     * @param epsilon   relative error of the number itself
+     * @param delta     probability that the relative error is exceeded, not used by the basic estimator
+     * @param estimator estimator to use
+     * @return the estimated base 2 logarithm of the number of satisfying truth assignments
+     */
+    public double log2ApproximateNumberOfSatisfyingTruthAssignments(double epsilon, double delta,
+                                                                    DNFEstimator estimator) {
+        double mean = estimateMean(epsilon, delta, estimator);
+
+        return Math.log(clauseTable.getTotal() * mean) / Math.log(2) + formula.getVariableCount() - minLiterals;
+    }
+
+    /**
+     * The self-adjusting coverage algorithm of Karp, Luby and Madras, see {@code estimateMeanBySelfAdjustingCoverage}.
+     * @param epsilon relative error
+     * @param delta   probability that the relative error is exceeded
+     * @return the estimated number of satisfying truth assignments
+     */
+    public double approximateBySelfAdjustingCoverage(double epsilon, double delta) {
+        return scale(estimateMeanBySelfAdjustingCoverage(epsilon, delta), formula.getVariableCount());
+    }
+
+    /**
+     * Estimates the expected value of a sample, that is: of one over the number of clauses satisfied by a random
+     * satisfying assignment.
+     * @param epsilon   relative error
+     * @param delta     probability that the relative error is exceeded, not used by the basic estimator
+     * @param estimator estimator to use
+     * @return the estimated expected value of a sample
+     */
+    private double estimateMean(double epsilon, double delta, DNFEstimator estimator) {
+        switch (estimator) {
+            case KARP_LUBY:
+                return average(getSampleCount(epsilon));
+            case KARP_LUBY_STOPPING_RULE:
+                return getStoppingThreshold(epsilon, delta) / collectUntilStopped(epsilon, delta).getCount();
+            case SELF_ADJUSTING_COVERAGE:
+                return estimateMeanBySelfAdjustingCoverage(epsilon, delta);
+            default:
+                throw new IllegalArgumentException("Unknown DNF estimator: " + estimator);
+        }
+    }
+
+    /**
+     * The self-adjusting coverage algorithm of Karp, Luby and Madras. Every trial draws a clause and a random truth
+     * assignment satisfying it, as a Karp-Luby sample does, and then checks uniformly random clauses until one of
+     * them is satisfied by that assignment. The expected number of checks of a trial is {@code k} times the expected
+     * value of a sample, so once a total of {@code T = 8(1 + epsilon) k ln(3 / delta) / epsilon^2} checks have been
+     * made, {@code T / (k N)}, where {@code N} is the number of trials started, is within a factor
+     * {@code 1 +- epsilon} of that expected value with probability at least {@code 1 - delta}.
+     * @param epsilon relative error
+     * @param delta   probability that the relative error is exceeded
+     * @return the estimated expected value of a sample
+     */
+    private double estimateMeanBySelfAdjustingCoverage(double epsilon, double delta) {
+        if (epsilon <= 0 || delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("The self-adjusting coverage algorithm needs epsilon > 0 and " +
+                    "0 < delta < 1. Got: epsilon = " + epsilon + ", delta = " + delta + ".");
+        }
+
+        int k = formula.getClauseCount();
+        double budget = 8 * (1 + epsilon) * k * Math.log(3 / delta) / (epsilon * epsilon);
+        long maxChecks = (long) Math.ceil(budget);
+
+        SplittableRandom random = this.random.get();
+        long[] buffer = assignment.get();
+
+        long checks = 0;
+        long trials = 0;
+        while (true) {
+            trials++;
+            formula.randomize(buffer, random);
+            formula.satisfy(clauseTable.next(random), buffer);
+
+            do {
+                checks++;
+                if (checks > maxChecks) {
+                    return maxChecks / ((double) k * trials);
+                }
+            } while (!formula.isSatisfied(random.nextInt(k), buffer));
+        }
+    }
+
+    /**
+     * Multiplies an estimate of the expected value of a sample by the sum of the clause weights, divided by
+     * {@code 2^n} and multiplied by {@code 2^exponent}.
+     * @param mean     estimated expected value of a sample
+     * @param exponent {@code n} for the number of satisfying truth assignments, 0 for their fraction
+     * @return the scaled estimate
+     */
+    private double scale(double mean, int exponent) {
+        return Math.scalb(clauseTable.getTotal() * mean, exponent - minLiterals);
+    }
+
+    /**
+     * @param epsilon relative error
+     * @return the number of samples of the original algorithm, {@code 4(k - 1)^2 / epsilon^2}
+     */
+    private long getSampleCount(double epsilon) {
+        long samples = (long) (4 * Math.pow(formula.getClauseCount() - 1, 2) / Math.pow(epsilon, 2));
+
+        // A single clause is counted exactly by any sample
+        return Math.max(1, samples);
+    }
+
+    public CompiledDNFFormula getFormula() {
+        return formula;
+    }
+
+    /**
+     * @return the sum over all clauses of the number of truth assignments that satisfy the clause, which is infinite
+     *         if it does not fit in a double
+     */
+    public double getTotalWeight() {
+        return scale(1, formula.getVariableCount());
+    }
+}
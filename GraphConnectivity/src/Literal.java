@@ -14,4 +14,18 @@ public class Literal {
     public boolean getRequiredTruthAssignment() {
         return requiredTruthAssignment;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Literal)) return false;
+
+        Literal other = (Literal) o;
+        return requiredTruthAssignment == other.requiredTruthAssignment && id.equals(other.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return 2 * id.hashCode() + (requiredTruthAssignment ? 1 : 0);
+    }
 }
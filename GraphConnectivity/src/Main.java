@@ -1,13 +1,14 @@
-import org.graphstream.graph.Edge;
 import org.graphstream.graph.Graph;
 import org.graphstream.graph.Node;
-import org.graphstream.graph.implementations.Graphs;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
 import java.math.RoundingMode;
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
 
 public class Main {
     public static void main(String[] args) {
@@ -24,6 +25,20 @@ public class Main {
 
     private void outputMinMaxApproximations(Graph graph, double epsilonMin, double epsilonMax,
                                             double epsilonStep, int iterations) {
+        outputMinMaxApproximations(graph, epsilonMin, epsilonMax, epsilonStep, iterations, false, 0);
+    }
+
+    /**
+     * Prints the smallest and largest of a number of estimates of the number of connected spanning subgraphs of a
+     * graph, for a range of values of epsilon. All estimates take their cuts from a single repository, which is
+     * first filled for the smallest epsilon (the largest cuts), after which the other values of epsilon are run in
+     * parallel against it.
+     * With common random numbers, iteration {@code i} uses the seed {@code seed + i} for every value of epsilon, so
+     * the estimates for different values of epsilon differ by the effect of epsilon rather than by sampling noise, and
+     * the whole output can be replayed.
+     */
+    private void outputMinMaxApproximations(Graph graph, double epsilonMin, double epsilonMax, double epsilonStep,
+                                            int iterations, boolean commonRandomNumbers, long seed) {
         int steps = (int) ((epsilonMax - epsilonMin) / epsilonStep) + 1;
         double[] max = new double[steps];
         double[] min = new double[steps];
@@ -31,21 +46,22 @@ public class Main {
             min[i] = Double.MAX_VALUE;
         }
 
-        double approximation;
+        EstimationSettings settings = new EstimationSettings();
+        SplittableRandom random = new SplittableRandom();
+        if (commonRandomNumbers) {
+            settings.setSeed(seed);
+            random = new SplittableRandom(seed);
+        }
+        CutRepository repository = new CutRepository(new CompactGraph(graph), settings, random);
+        runApproximations(repository, settings, epsilonMin, iterations, 0, min, max);
+        IntStream.range(1, steps).parallel().forEach(k -> runApproximations(repository, settings,
+                epsilonMin + (k * epsilonStep), iterations, k, min, max));
+
         for (int k = 0; k < steps; k++) {
             double epsilon = epsilonMin + (k * epsilonStep);
             System.out.print(round(epsilon, 5));
             System.out.print("; ");
-            for (int i = 0; i < iterations; i++){
-                approximation = Algorithm.getInstance().approximateNumberOfSpanningSubgraphs(graph, epsilon);
-                if (approximation > max[k]) {
-                    max[k] = approximation;
-                }
-                if (approximation < min[k]) {
-                    min[k] = approximation;
-                }
-                System.out.println(i);
-            }
+            System.out.println(iterations + " iterations");
             System.out.println("MAX = " + max[k]);
             System.out.println("MIN = " + min[k]);
         }
@@ -62,6 +78,23 @@ public class Main {
         }
     }
 
+    private void runApproximations(CutRepository repository, EstimationSettings settings, double epsilon,
+                                   int iterations, int k, double[] min, double[] max) {
+        for (int i = 0; i < iterations; i++) {
+            // With common random numbers, iteration i replays the same random streams for every epsilon
+            EstimationSettings iterationSettings = settings.hasSeed() ?
+                    settings.copy().setSeed(settings.getSeed() + i) : settings;
+            double approximation = Algorithm.getInstance().approximateNumberOfSpanningSubgraphs(repository, epsilon,
+                    iterationSettings);
+            if (approximation > max[k]) {
+                max[k] = approximation;
+            }
+            if (approximation < min[k]) {
+                min[k] = approximation;
+            }
+        }
+    }
+
     private static double round(double value, int places) {
         if (places < 0) throw new IllegalArgumentException();
 
@@ -98,6 +131,69 @@ public class Main {
         System.out.println("  " + errorInv);
     }
 
+    /**
+     * Compares estimates of the fraction of disconnected subgraphs with graph reduction against the exact fraction,
+     * which follows from the exact weighted counts of the cores of a full {@code GraphReducer} reduction.
+     */
+    private void testReduction() {
+        double epsilon = 0.1;
+        EstimationSettings settings = new EstimationSettings().setReduceGraph(true)
+                .setEstimator(DNFEstimator.KARP_LUBY_STOPPING_RULE);
+
+        for (Graph graph : new Graph[] {subdividedCompleteGraph(10, 3, 0), subdividedCompleteGraph(8, 0, 6)}) {
+            GraphReduction reduction = new GraphReducer(new CompactGraph(graph)).reduce();
+            BigDecimal all = new BigDecimal(BigInteger.ONE.shiftLeft(graph.getEdgeCount()));
+            BigDecimal connected = new BigDecimal(reduction.countSpanningSubgraphs());
+            double exact = all.subtract(connected).divide(all, MathContext.DECIMAL64).doubleValue();
+            double approximate = Algorithm.getInstance().approximateFractionOfDisconnectedSubgraphs(graph, epsilon,
+                    settings);
+
+            System.out.println(reduction);
+            System.out.println("Exact fraction of disconnected subgraphs:");
+            System.out.println("  " + exact);
+            System.out.println("Approximation with epsilon = " + epsilon + ":");
+            System.out.println("  " + approximate);
+            System.out.println("Relative error:");
+            System.out.println("  " + (approximate - exact) / exact);
+            System.out.println();
+        }
+    }
+
+    /**
+     * @param n            number of vertices of a complete graph, split into two halves
+     * @param subdivisions number of vertices placed on every edge between the halves
+     * @param pendant      number of vertices of a path attached to the first vertex
+     * @return the complete graph with its edges between the halves subdivided and the path attached
+     */
+    private Graph subdividedCompleteGraph(int n, int subdivisions, int pendant) {
+        GraphGenerator generator = GraphGenerator.getInstance();
+        Graph graph = generator.createNewMultiGraph(n);
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                String previous = String.valueOf(i);
+                if (i < n / 2 && j >= n / 2) {
+                    for (int k = 0; k < subdivisions; k++) {
+                        String id = i + "/" + j + "." + k;
+                        graph.addNode(id);
+                        generator.connectVertices(graph, previous, id);
+                        previous = id;
+                    }
+                }
+                generator.connectVertices(graph, previous, String.valueOf(j));
+            }
+        }
+
+        String previous = "0";
+        for (int k = 0; k < pendant; k++) {
+            String id = "p" + k;
+            graph.addNode(id);
+            generator.connectVertices(graph, previous, id);
+            previous = id;
+        }
+
+        return graph;
+    }
+
     private DNFFormula customFormula() {
         Literal x1  = new Literal("x1", true);
         Literal nx1 = new Literal("x1", false);
@@ -172,96 +268,16 @@ public class Main {
         showIds(graph);
         graph.display();
 
-        ArrayList<Boolean> decision = new ArrayList<>();
+        // The ring around the neighborhood is always present
+        Graph ring = GraphGenerator.getInstance().createNewSingleGraph(graph.getNodeCount());
+        GraphGenerator.getInstance().addRing(ring);
 
-        int nrOfFaultySubgraphs = countFaultySubgraphs(graph, decision);
+        FaultEnumerator enumerator = new FaultEnumerator(graph, ring).setRequiredCoverage(2, 3, 4, 5, 8, 11);
+        long nrOfFaultySubgraphs = enumerator.countFaultySubsets();
 
         System.out.println(nrOfFaultySubgraphs);
     }
 
-    private int countFaultySubgraphs(Graph graph, ArrayList<Boolean> decision) {
-        if (decision.size() == graph.getEdgeCount()) {
-            if (isFaulty(graph, decision)) {
-                return 1;
-            } else {
-                return 0;
-            }
-        }
-
-        decision.add(true);
-        int sum = countFaultySubgraphs(graph, decision);
-
-        decision.set(decision.size() - 1, false);
-        sum += countFaultySubgraphs(graph, decision);
-
-        decision.remove(decision.size() - 1);
-
-        return sum;
-    }
-
-    private boolean isFaulty(Graph graph, ArrayList<Boolean> decision) {
-        ArrayList<Edge> edges       = new ArrayList<>(graph.getEdgeSet());
-        ArrayList<Edge> chosenEdges = new ArrayList<>();
-
-        for (int i = 0; i < edges.size(); i++) {
-            if (decision.get(i)) {
-                chosenEdges.add(edges.get(i));
-            }
-        }
-
-        if (hasLeftOutVertex(graph, chosenEdges)) {
-            System.out.println(1);
-            return true;
-        }
-
-        if (isDisconnected(graph, decision)) {
-            System.out.println(2);
-            return true;
-        }
-
-        System.out.println("#################################");
-        return false;
-    }
-
-    private boolean isDisconnected(Graph graph, ArrayList<Boolean> decision) {
-        Graph clone = Graphs.clone(graph);
-        ArrayList<Edge> edges = new ArrayList<>(clone.getEdgeSet());
-
-        GraphGenerator.getInstance().addRing(clone);
-
-        for (int i = 0; i < decision.size(); i++) {
-            if (decision.get(i) == false) {
-                clone.removeEdge(edges.get(i));
-            }
-        }
-
-        return !GraphAnalyzer.getInstance().isConnected(clone);
-    }
-
-    private boolean hasLeftOutVertex(Graph graph, ArrayList<Edge> edges) {
-        Set<Node> coveredNodes = new HashSet<>();
-        for (Edge edge : edges) {
-            coveredNodes.add(edge.getNode0());
-            coveredNodes.add(edge.getNode1());
-        }
-
-        ArrayList<Node> requiredNodes = new ArrayList<>();
-        requiredNodes.add(graph.getNode(2));
-        requiredNodes.add(graph.getNode(3));
-        requiredNodes.add(graph.getNode(4));
-        requiredNodes.add(graph.getNode(5));
-        requiredNodes.add(graph.getNode(8));
-        requiredNodes.add(graph.getNode(11));
-
-        for (Node node : requiredNodes) {
-            if (!coveredNodes.contains(node)) {
-                return true;
-            }
-        }
-
-        return false;
-    }
-
     private void showIds(Graph g) {
         for (Node node : g.getNodeSet()) {
             node.setAttribute("label", node.getId());
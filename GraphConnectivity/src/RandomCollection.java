@@ -1,29 +1,100 @@
-import java.util.NavigableMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
-import java.util.TreeMap;
 
+/**
+ * Collection of elements that can be drawn at random, with probabilities proportional to their weights. The
+ * elements are added one by one, and the first draw after an addition builds an {@code AliasTable} of the weights,
+ * after which every draw takes constant time and does not allocate. Adding the same element twice, or adding a
+ * weight that is tiny compared to the total weight, simply adds another entry.
+ */
 public class RandomCollection<E> {
-    private final NavigableMap<Double, E> map = new TreeMap<Double, E>();
-    private final Random random;
-    private double total = 0;
+    private final List<E> elements = new ArrayList<>();
+    private double[]      weights  = new double[16];
+    private final Random  random;
+    private AliasTable    table;
 
     public RandomCollection() {
         this(new Random());
     }
 
+    /**
+     * @param random source of randomness of {@code next()}
+     */
     public RandomCollection(Random random) {
         this.random = random;
     }
 
+    /**
+     * Adds an element with the given weight. Elements with a weight that is not positive are ignored.
+     * @param result element to add
+     * @param weight weight of the element
+     * @return this collection
+     */
     public RandomCollection<E> add(E result, double weight) {
         if (weight <= 0) return this;
-        total += weight;
-        map.put(total, result);
+        if (Double.isNaN(weight) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException("The weight of an element of a RandomCollection should be finite. " +
+                    "Got: " + weight + ".");
+        }
+
+        if (elements.size() == weights.length) {
+            weights = Arrays.copyOf(weights, 2 * weights.length);
+        }
+        weights[elements.size()] = weight;
+        elements.add(result);
+        table = null;
         return this;
     }
 
+    /**
+     * @return a random element, drawn with the random generator of this collection
+     */
     public E next() {
-        double value = random.nextDouble() * total;
-        return map.higherEntry(value).getValue();
+        return next(random);
+    }
+
+    /**
+     * @param random source of randomness
+     * @return a random element
+     */
+    public E next(Random random) {
+        return elements.get(getTable().next(random));
+    }
+
+    /**
+     * Fills {@code out} with the indices of random elements, in the order in which the elements were added, drawn with
+     * the random generator of this collection.
+     * @param out array to fill
+     */
+    public void nextInts(int[] out) {
+        getTable().nextInts(out, random);
+    }
+
+    /**
+     * @param index index of an element, in the order in which the elements were added
+     * @return the element
+     */
+    public E get(int index) {
+        return elements.get(index);
+    }
+
+    public int size() {
+        return elements.size();
+    }
+
+    /**
+     * @return the alias table of the weights of the elements added so far
+     */
+    public AliasTable getTable() {
+        if (elements.isEmpty()) {
+            throw new IllegalStateException("Cannot draw from an empty RandomCollection.");
+        }
+        if (table == null) {
+            table = new AliasTable(Arrays.copyOf(weights, elements.size()));
+        }
+
+        return table;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,92 @@
+/**
+ * Running mean and variance of a stream of samples, updated with the method of Welford. Unlike the textbook formula
+ * based on the sum of the squares, this does not lose its precision when the variance is small compared to the mean.
+ * Statistics of separate streams can be merged (as described by Chan, Golub and LeVeque), so they can be gathered in
+ * parallel.
+ *
+ * The confidence intervals assume that all samples lie between 0 and 1. They are based on the empirical Bernstein
+ * bound of Maurer and Pontil, which holds for any such distribution and is much tighter than the worst-case bound
+ * when the variance is small.
+ */
+public class SampleStatistics {
+    private long   count = 0;
+    private double sum   = 0;
+    private double mean  = 0;
+    // Sum of the squared deviations from the mean
+    private double m2    = 0;
+
+    /**
+     * @param x sample to add
+     */
+    public void add(double x) {
+        count++;
+        sum += x;
+        double delta = x - mean;
+        mean += delta / count;
+        m2   += delta * (x - mean);
+    }
+
+    /**
+     * Adds all samples of {@code other} to these statistics.
+     * @param other statistics to merge into these statistics
+     */
+    public void merge(SampleStatistics other) {
+        if (other.count == 0) {
+            return;
+        }
+
+        long   total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2   += other.m2 + delta * delta * ((double) count * other.count / total);
+        sum  += other.sum;
+        count = total;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return the unbiased sample variance, or 0 if there are fewer than two samples
+     */
+    public double getVariance() {
+        return count < 2 ? 0 : m2 / (count - 1);
+    }
+
+    public double getStandardError() {
+        return count == 0 ? Double.POSITIVE_INFINITY : Math.sqrt(getVariance() / count);
+    }
+
+    /**
+     * Returns the half width of a confidence interval around the mean, such that the expected value of the samples
+     * lies within it with probability at least {@code 1 - delta}, if all samples lie between 0 and 1.
+     * @param delta probability that the expected value lies outside the interval, strictly between 0 and 1
+     * @return the half width of the interval, which is infinite for fewer than two samples
+     */
+    public double getHalfWidth(double delta) {
+        if (delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("Delta should be strictly between 0 and 1. Got: " + delta + ".");
+        }
+        if (count < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        // Both tails get probability delta / 2
+        double log = Math.log(4 / delta);
+        return Math.sqrt(2 * getVariance() * log / count) + 7 * log / (3 * (count - 1));
+    }
+
+    @Override
+    public String toString() {
+        return count + " samples with mean " + mean + " and variance " + getVariance();
+    }
+}
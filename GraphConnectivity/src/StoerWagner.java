@@ -0,0 +1,85 @@
+/**
+ * The minimum cut algorithm of Stoer and Wagner, which computes the size of a minimum cut of a graph exactly and
+ * deterministically. Parallel edges are merged into weighted edges, and loops are ignored.
+ *
+ * This is the simple version that keeps the weights between the super vertices in a matrix, so it takes
+ * {@code O(n^3)} time and {@code O(n^2)} memory, which is negligible next to the cut enumeration for the graph sizes at
+ * which the cuts can be enumerated at all.
+ */
+public class StoerWagner {
+    /**
+     * Computes the size of a minimum cut of {@code graph}.
+     * @param graph input graph
+     * @return the number of edges in a minimum cut, or 0 if the graph is not connected or has fewer than two vertices
+     */
+    public static int minimumCutSize(CompactGraph graph) {
+        int n = graph.getNodeCount();
+        if (n < 2) {
+            return 0;
+        }
+
+        int[][] weight = new int[n][n];
+        for (int edge = 0; edge < graph.getEdgeCount(); edge++) {
+            int u = graph.getEndpoint0(edge);
+            int v = graph.getEndpoint1(edge);
+            if (u != v) {
+                weight[u][v]++;
+                weight[v][u]++;
+            }
+        }
+
+        // The super vertices that have not been merged into another one yet
+        int[] active = new int[n];
+        for (int v = 0; v < n; v++) {
+            active[v] = v;
+        }
+
+        int   best  = Integer.MAX_VALUE;
+        int[] key   = new int[n];
+        boolean[] added = new boolean[n];
+        for (int count = n; count > 1; count--) {
+            // Maximum adjacency ordering of the active super vertices
+            for (int i = 0; i < count; i++) {
+                key[active[i]]   = 0;
+                added[active[i]] = false;
+            }
+
+            int previous = -1;
+            int last     = -1;
+            int lastIndex = -1;
+            for (int step = 0; step < count; step++) {
+                int next = -1;
+                int nextIndex = -1;
+                for (int i = 0; i < count; i++) {
+                    int v = active[i];
+                    if (!added[v] && (next == -1 || key[v] > key[next])) {
+                        next = v;
+                        nextIndex = i;
+                    }
+                }
+
+                added[next] = true;
+                previous  = last;
+                last      = next;
+                lastIndex = nextIndex;
+                for (int i = 0; i < count; i++) {
+                    key[active[i]] += weight[next][active[i]];
+                }
+            }
+
+            // The last vertex of the ordering, on its own, is a minimum cut between it and the one before it
+            best = Math.min(best, key[last]);
+
+            // Merge the last vertex into the one before it
+            for (int i = 0; i < count; i++) {
+                int v = active[i];
+                weight[previous][v] += weight[last][v];
+                weight[v][previous]  = weight[previous][v];
+            }
+            weight[previous][previous] = 0;
+            active[lastIndex] = active[count - 1];
+        }
+
+        return best;
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Disjoint set data structure over the vertices {@code 0, ..., n-1}, with union by size and path halving. It is used
+ * to contract edges without modifying the graph: two vertices are merged into the same super vertex by taking the
+ * union of their sets.
+ */
+public class UnionFind {
+    private final int[] parent;
+    private final int[] size;
+    private int count;
+
+    public UnionFind(int n) {
+        parent = new int[n];
+        size   = new int[n];
+        count  = n;
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            size[i]   = 1;
+        }
+    }
+
+    /**
+     * Returns the representative of the set containing {@code v}.
+     * @param v input vertex
+     * @return the representative of the set of {@code v}
+     */
+    public int find(int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+
+        return v;
+    }
+
+    /**
+     * Merges the sets containing {@code u} and {@code v}.
+     * @param u first vertex
+     * @param v second vertex
+     * @return whether the sets were different, that is: whether anything was merged
+     */
+    public boolean union(int u, int v) {
+        int ru = find(u);
+        int rv = find(v);
+        if (ru == rv) {
+            return false;
+        }
+
+        if (size[ru] < size[rv]) {
+            int tmp = ru;
+            ru = rv;
+            rv = tmp;
+        }
+        parent[rv] = ru;
+        size[ru]  += size[rv];
+        count--;
+
+        return true;
+    }
+
+    /**
+     * @return the number of disjoint sets
+     */
+    public int getCount() {
+        return count;
+    }
+}